@@ -22,6 +22,7 @@ const d3_scale_chromatic = require('d3-scale-chromatic');
 const fs = require('fs');
 const glob = require('glob');
 const path = require('path');
+const zlib = require('zlib');
 const copydir = require('copy-dir');
 
 // user
@@ -40,7 +41,7 @@ const autoColorScale = scaleOrdinal([...d3_scale_chromatic.schemePaired, ...d3_s
  */
 function processData(dataPath, done) {
     // Get just the filename from the path
-    const dataName = path.basename(dataPath, '.jsonl');
+    const dataName = path.basename(dataPath).replace(/\.jsonl(\.gz)?$/, '');
 
     // Define variables
     let linesProcessed = 0;
@@ -63,7 +64,9 @@ function processData(dataPath, done) {
     log(`Processing ${dataPath}...`);
 
     // Create read stream and interface
-    const readableStream = fs.createReadStream(dataPath);
+    // Gzip compressed files (.jsonl.gz) are decompressed while reading
+    const fileStream = fs.createReadStream(dataPath);
+    const readableStream = dataPath.endsWith('.gz') ? fileStream.pipe(zlib.createGunzip()) : fileStream;
     readableStream.setEncoding('utf8');
     const lineReader = require('readline').createInterface({
         input: readableStream
@@ -217,6 +220,48 @@ function processData(dataPath, done) {
     });
 }
 
+/**
+ * processGraphData()
+ * Reads a graph data file pre-aggregated by the Jarviz Java library (.graph.json or .graph.json.gz),
+ * which already contains the nodes and the deduplicated links, and only assigns the application colors
+ * @param {*} dataPath - Path to graph data file
+ * @param {*} done - callback function invoked with single object containing `data` and `dataName` properties upon successful run
+ */
+function processGraphData(dataPath, done) {
+    // Get just the filename from the path
+    const dataName = path.basename(dataPath).replace(/\.graph\.json(\.gz)?$/, '');
+
+    // Log progress message
+    log(`Processing ${dataPath}...`);
+
+    // Gzip compressed files (.graph.json.gz) are decompressed while reading
+    const content = fs.readFileSync(dataPath);
+    const graph = JSON.parse((dataPath.endsWith('.gz') ? zlib.gunzipSync(content) : content).toString('utf8'));
+    const data = graph.data;
+
+    for (const groupBy of ['sourceClass', 'sourceClass-targetClass']) {
+        const groupData = data[groupBy];
+        groupData.colorMap = {};
+        for (const applicationName of graph.applicationNames) {
+            groupData.colorMap[applicationName] = autoColorScale(applicationName);
+        }
+        for (const node of groupData.nodes) {
+            if (!node.target) {
+                node.color = groupData.colorMap[node.applicationName];
+            }
+        }
+        for (const link of groupData.links) {
+            link.curvature = 0.1;
+        }
+    }
+
+    done({
+        data,
+        dataName,
+        linesProcessed: graph.recordCount
+    });
+}
+
 /**
  * processFiles()
  * Given an array of files from jarviz output, process data into node/links and render using webpack
@@ -226,7 +271,8 @@ function processData(dataPath, done) {
 function processFiles(files, outputPath) {
     if (files.length > 0) {
         const file = files.pop();
-        processData(file, async ({data, dataName, linesProcessed}) => {
+        const processFile = /\.graph\.json(\.gz)?$/.test(file) ? processGraphData : processData;
+        processFile(file, async ({data, dataName, linesProcessed}) => {
             await writeToDisk({data, dataName, outputPath});
             logSuccess(`Processed ${linesProcessed} rows and wrote to disk "${outputPath}"`);
             // Process next file
@@ -242,10 +288,10 @@ function processFiles(files, outputPath) {
  * @param {string} outputPath - absolute path to output HTML graph
  */
 function processAll(inputPath, outputPath) {
-    const dataFiles = glob.sync(path.join(inputPath, '*.jsonl'));
+    const dataFiles = glob.sync(path.join(inputPath, '*.{jsonl,jsonl.gz,graph.json,graph.json.gz}'));
     log(`processing ${dataFiles} -> ${outputPath}`);
     if (dataFiles.length === 0) {
-        logCritical(`Could not find any files match *.jsonl at path: ${inputPath}`);
+        logCritical(`Could not find any files match *.jsonl, *.jsonl.gz, *.graph.json or *.graph.json.gz at path: ${inputPath}`);
         return;
     }
     // process files
@@ -254,6 +300,7 @@ function processAll(inputPath, outputPath) {
 
 module.exports = {
     processData,
+    processGraphData,
     processFiles,
     processAll
 };
@@ -63,6 +63,8 @@ public class AnalyzeCommand {
         String FILTER_SHORT = "f";
         String OUTPUT_LONG = "output";
         String OUTPUT_SHORT = "o";
+        String FORMAT_LONG = "format";
+        String FORMAT_SHORT = "t";
         String HELP_LONG = "help";
         String HELP_SHORT = "h";
         String VERSION_LONG = "version";
@@ -93,7 +95,13 @@ public class AnalyzeCommand {
                                     .build())
                    .addOption(Option.builder(Params.OUTPUT_SHORT)
                                     .longOpt(Params.OUTPUT_LONG)
-                                    .desc("Path to the newline-delimited JSON output file (.jsonl)")
+                                    .desc("Path to the output file (.jsonl, .csv, gzip compressed .jsonl.gz or .csv.gz, " +
+                                          "binary .jbin or graph data .graph.json)")
+                                    .hasArg()
+                                    .build())
+                   .addOption(Option.builder(Params.FORMAT_SHORT)
+                                    .longOpt(Params.FORMAT_LONG)
+                                    .desc("Output format: jsonl, csv, binary, graph or a custom sink (default is by the output file extension)")
                                     .hasArg()
                                     .build())
                    .addOption(Option.builder(Params.HELP_SHORT)
@@ -140,8 +148,11 @@ public class AnalyzeCommand {
             final File artifactsFile = loadFileFromArgument(line, Params.ARTIFACTS_LONG, true);
             final File filterFile = loadFileFromArgument(line, Params.FILTER_LONG, true);
             final String output = loadStringFromArgument(line, Params.OUTPUT_LONG);
+            final String format = loadStringFromArgument(line, Params.FORMAT_LONG);
 
-            jarvizConfig = configFile != null ? fromJsonString(readFileAsString(configFile), JarvizConfig.class) : null;
+            final JarvizConfig fileConfig =
+                configFile != null ? fromJsonString(readFileAsString(configFile), JarvizConfig.class) : null;
+            jarvizConfig = (format == null || format.isEmpty()) ? fileConfig : withOutputFormat(fileConfig, format);
             applicationSet = fromJsonString(readFileAsString(artifactsFile), ApplicationSet.class);
             filterConfig = fromJsonString(readFileAsString(filterFile), CouplingFilterConfig.class);
             reportFile = (output == null || output.isEmpty()) ? DEFAULT_OUTPUT : output;
@@ -160,6 +171,15 @@ public class AnalyzeCommand {
         }
     }
 
+    private static JarvizConfig withOutputFormat(final JarvizConfig config, final String format) {
+        final JarvizConfig.Builder builder = new JarvizConfig.Builder();
+        if (config != null) {
+            builder.from(config);
+        }
+
+        return builder.outputFormat(format).build();
+    }
+
     private static void reportError(final Exception e) {
         if (e.getMessage() == null) {
             System.err.println("Analyze failed");
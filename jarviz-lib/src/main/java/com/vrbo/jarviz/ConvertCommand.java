@@ -0,0 +1,80 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+import com.vrbo.jarviz.service.CouplingRecordConverter;
+
+/**
+ * Converts a Jarviz binary output file (.jbin) to a newline-delimited JSON file (.jsonl).
+ */
+public class ConvertCommand {
+
+    interface ExitStatus {
+
+        int CLI_INIT_FAILED = 1;
+        int CONVERSION_FAILED = 2;
+    }
+
+    interface Params {
+
+        String INPUT_LONG = "input";
+        String INPUT_SHORT = "i";
+        String OUTPUT_LONG = "output";
+        String OUTPUT_SHORT = "o";
+    }
+
+    private static final Options OPTIONS = new Options()
+                                               .addOption(Option.builder(Params.INPUT_SHORT)
+                                                                .longOpt(Params.INPUT_LONG)
+                                                                .desc("Path to the binary input file (.jbin or .jbin.gz)")
+                                                                .hasArg()
+                                                                .required()
+                                                                .build())
+                                               .addOption(Option.builder(Params.OUTPUT_SHORT)
+                                                                .longOpt(Params.OUTPUT_LONG)
+                                                                .desc("Path to the newline-delimited JSON output file (.jsonl or .jsonl.gz)")
+                                                                .hasArg()
+                                                                .required()
+                                                                .build());
+
+    public static void main(String[] args) {
+        final CommandLine line;
+        try {
+            line = new DefaultParser().parse(OPTIONS, args);
+        } catch (Exception e) {
+            System.err.println("Convert failed: " + e.getMessage());
+            new HelpFormatter().printHelp(ConvertCommand.class.getName(), OPTIONS);
+            System.exit(ExitStatus.CLI_INIT_FAILED);
+            return;
+        }
+
+        try {
+            final long count = CouplingRecordConverter.binaryToJsonl(line.getOptionValue(Params.INPUT_LONG),
+                                                                     line.getOptionValue(Params.OUTPUT_LONG));
+            System.out.println(String.format("Converted %d coupling records", count));
+        } catch (Exception e) {
+            System.err.println("Convert failed: " + e.getMessage());
+            System.exit(ExitStatus.CONVERSION_FAILED);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.config;
+
+/**
+ * Specifies how the artifacts missing from the artifact directory are fetched.
+ */
+public enum ArtifactResolution {
+
+    /**
+     * Runs the mvn command to copy the artifacts, which requires Maven to be installed.
+     */
+    MAVEN_COMMAND,
+
+    /**
+     * Resolves the artifacts in-process with Maven Resolver, from the local Maven repository or the remote
+     * repositories, downloading multiple artifacts in parallel.
+     */
+    EMBEDDED
+}
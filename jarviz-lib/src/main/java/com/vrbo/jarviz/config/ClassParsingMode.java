@@ -0,0 +1,34 @@
+/*
+ * Copyright 2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.vrbo.jarviz.config;
+
+/**
+ * Specifies which parts of a class file are parsed while looking for the method couplings.
+ * Only the method instructions are needed to find the couplings, therefore the output is the same for every mode.
+ */
+public enum ClassParsingMode {
+
+    /**
+     * Parses the whole class file, including the debug information and the stack map frames.
+     */
+    FULL,
+
+    /**
+     * Skips the debug information (source file, line numbers, local variables) and the stack map frames.
+     */
+    SKIP_DEBUG_AND_FRAMES
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.vrbo.jarviz.config;
+
+/**
+ * Specifies the order of the couplings written for each artifact.
+ * Every ordering writes the same couplings, only their order is different.
+ */
+public enum CouplingOrdering {
+
+    /**
+     * Writes the couplings in no particular order, without sorting them.
+     */
+    UNORDERED,
+
+    /**
+     * Writes the couplings grouped by their source classes, in the order the classes are read from the artifact
+     * (by class name), without sorting the couplings of a class.
+     */
+    CLASS,
+
+    /**
+     * Writes the couplings sorted by the source and then the target class and method names.
+     */
+    SORTED
+}
@@ -16,6 +16,10 @@
 
 package com.vrbo.jarviz.config;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
 import org.immutables.value.Value;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -34,7 +38,19 @@ public interface JarvizConfig {
 
     @Value.Check
     default void check() {
+        Preconditions.checkState(getArtifactCacheMaxMegabytes() >= 0, "artifactCacheMaxMegabytes should not be negative");
         Preconditions.checkState(getMavenTimeOutSeconds() >= 0, "mavenTimeOutSeconds should not be negative");
+        Preconditions.checkState(getMavenBatchSize() >= 0, "mavenBatchSize should not be negative");
+        Preconditions.checkState(getMavenDownloadThreads() >= 1, "mavenDownloadThreads should be at least 1");
+        Preconditions.checkState(getArtifactPrefetchDepth() >= 0, "artifactPrefetchDepth should not be negative");
+        Preconditions.checkState(getArtifactPrefetchDiskBudgetMegabytes() >= 0,
+                                 "artifactPrefetchDiskBudgetMegabytes should not be negative");
+        Preconditions.checkState(getAnalysisThreads() >= 1, "analysisThreads should be at least 1");
+        Preconditions.checkState(getArtifactThreads() >= 1, "artifactThreads should be at least 1");
+        Preconditions.checkState(getAnalysisHeapBudgetMegabytes() >= 0, "analysisHeapBudgetMegabytes should not be negative");
+        Preconditions.checkState(getFilterCacheMaxEntries() >= 0, "filterCacheMaxEntries should not be negative");
+        Preconditions.checkState(getWriterQueueCapacity() >= 0, "writerQueueCapacity should not be negative");
+        Preconditions.checkState(getOutputShardMegabytes() >= 1, "outputShardMegabytes should be at least 1");
     }
 
     /**
@@ -49,6 +65,18 @@ public interface JarvizConfig {
         return "/tmp/jarviz/artifacts";
     }
 
+    /**
+     * The maximum size in MB of the artifact directory, which is then managed as a cache shared by the Jarviz processes
+     * on the same host. The least recently used artifacts are deleted when the fetched artifacts exceed it.
+     * Default is 0, which leaves the artifact directory unmanaged and unlimited.
+     *
+     * @return The artifact cache size in MB.
+     */
+    @Value.Default
+    default long getArtifactCacheMaxMegabytes() {
+        return 0;
+    }
+
     /**
      * When processing artifacts in a given appSet, should Jarviz ignore any maven
      * resolution or download errors for any given artifact and continue processing
@@ -70,5 +98,221 @@ public interface JarvizConfig {
         return 300;
     }
 
+    /**
+     * The maximum number of missing artifacts fetched by a single Maven invocation before the analysis starts.
+     * Default is 100. The time out of an invocation is {@link #getMavenTimeOutSeconds()} for each artifact.
+     * The artifacts which cannot be fetched in a batch are fetched one by one when they are analyzed.
+     * When 0, every artifact is fetched by its own Maven invocation.
+     *
+     * @return The Maven batch size.
+     */
+    @Value.Default
+    default int getMavenBatchSize() {
+        return 100;
+    }
+
+    /**
+     * The number of artifacts resolved ahead on a background thread while the current artifacts are analyzed,
+     * so that fetching the artifacts overlaps with the analysis. Default is 0, which resolves all the missing
+     * artifacts before the analysis starts instead.
+     *
+     * @return The prefetch depth.
+     */
+    @Value.Default
+    default int getArtifactPrefetchDepth() {
+        return 0;
+    }
+
+    /**
+     * The disk space in MB which can be taken by the artifacts fetched ahead and not yet analyzed, when
+     * {@link #getArtifactPrefetchDepth()} is set. No more artifacts are resolved ahead until enough artifacts
+     * are analyzed, so it can only be exceeded by the last artifact fetched. The artifacts already in the artifact
+     * directory or in a local Maven repository are not counted. With a budget, the artifacts are resolved ahead
+     * one by one instead of in batches. Default is 1024, and 0 is unlimited.
+     *
+     * @return The prefetch disk budget in MB.
+     */
+    @Value.Default
+    default int getArtifactPrefetchDiskBudgetMegabytes() {
+        return 1024;
+    }
+
+    /**
+     * The local Maven repositories where the artifacts missing from the artifact directory are looked up
+     * before fetching them, with the standard groupId/artifactId/version layout. The artifacts found are read
+     * in place, without copying them. Default is {@link #getMavenLocalRepository()}, and an empty list disables
+     * the lookup.
+     *
+     * @return The local Maven repository paths.
+     */
+    @Value.Default
+    default List<String> getLocalRepositories() {
+        return Collections.singletonList(getMavenLocalRepository());
+    }
+
+    /**
+     * How the artifacts missing from the artifact directory are fetched. Default is {@link ArtifactResolution#MAVEN_COMMAND}.
+     *
+     * @return The artifact resolution.
+     */
+    @Value.Default
+    default ArtifactResolution getArtifactResolution() {
+        return ArtifactResolution.MAVEN_COMMAND;
+    }
+
+    /**
+     * The local Maven repository, where the artifacts are looked up before fetching them, and where the
+     * {@link ArtifactResolution#EMBEDDED} resolution downloads them. Default is the .m2/repository directory
+     * in the user home.
+     *
+     * @return The local Maven repository path.
+     */
+    @Value.Default
+    default String getMavenLocalRepository() {
+        return System.getProperty("user.home") + "/.m2/repository";
+    }
+
+    /**
+     * The URLs of the remote repositories used by the {@link ArtifactResolution#EMBEDDED} resolution,
+     * e.g. "https://repo.maven.apache.org/maven2/" or "file:///opt/maven-mirror/". When empty, Maven Central is used.
+     *
+     * @return The remote repository URLs.
+     */
+    List<String> getMavenRemoteRepositories();
+
+    /**
+     * The number of artifacts downloaded in parallel by the {@link ArtifactResolution#EMBEDDED} resolution.
+     * Default is 4.
+     *
+     * @return The number of download threads.
+     */
+    @Value.Default
+    default int getMavenDownloadThreads() {
+        return 4;
+    }
+
+    /**
+     * The number of threads used to analyze the classes of a single artifact. Default is 1, which analyzes
+     * the classes sequentially. When greater than 1, the classes are analyzed in parallel on a dedicated
+     * fork-join pool and the output is identical to the sequential analysis.
+     *
+     * @return The number of analysis threads.
+     */
+    @Value.Default
+    default int getAnalysisThreads() {
+        return 1;
+    }
+
+    /**
+     * The number of artifacts analyzed concurrently. Default is 1, which analyzes the artifacts sequentially.
+     * Regardless of this value, the couplings are always written in the order of the applications and artifacts.
+     *
+     * @return The number of artifact threads.
+     */
+    @Value.Default
+    default int getArtifactThreads() {
+        return 1;
+    }
+
+    /**
+     * The approximate heap in megabytes that can be used by the artifacts being analyzed concurrently,
+     * estimated by the size of the artifact files. An artifact waits for the budget to become available
+     * before it is analyzed. Default is 0, which does not limit the heap.
+     *
+     * @return The heap budget in megabytes.
+     */
+    @Value.Default
+    default int getAnalysisHeapBudgetMegabytes() {
+        return 0;
+    }
+
+    /**
+     * Specifies which parts of the class files are parsed. Default is {@link ClassParsingMode#SKIP_DEBUG_AND_FRAMES},
+     * which skips the debug information and the stack map frames that are not needed to find the couplings.
+     *
+     * @return The class parsing mode.
+     */
+    @Value.Default
+    default ClassParsingMode getClassParsingMode() {
+        return ClassParsingMode.SKIP_DEBUG_AND_FRAMES;
+    }
+
+    /**
+     * The maximum number of classes for which the outcomes of the package and class filters are cached,
+     * separately for the source and the target classes. Default is 100000.
+     *
+     * @return The maximum number of cached classes on each side.
+     */
+    @Value.Default
+    default long getFilterCacheMaxEntries() {
+        return 100_000;
+    }
+
+    /**
+     * The maximum number of coupling records waiting to be written by a dedicated writer thread.
+     * The analysis waits when the queue is full. Default is 0, which writes the records on the analysis thread.
+     *
+     * @return The writer queue capacity.
+     */
+    @Value.Default
+    default int getWriterQueueCapacity() {
+        return 0;
+    }
+
+    /**
+     * The output format of the coupling records: {@code jsonl}, {@code csv}, {@code binary}, or the name of
+     * a custom {@link com.vrbo.jarviz.service.CouplingSinkProvider} on the classpath. When not set,
+     * the format is chosen by the extension of the output file.
+     *
+     * @return The output format.
+     */
+    Optional<String> getOutputFormat();
+
+    /**
+     * When true, the records of each artifact are written into a temporary shard file by the thread which analyzed
+     * the artifact, and the shards are concatenated in order into the output file at the end, instead of holding
+     * the records in memory until they can be written in order. Only supported for the uncompressed {@code jsonl}
+     * and {@code csv} output, otherwise the records are written directly. Default is false.
+     *
+     * @return Should the artifacts be written into shard files?
+     */
+    @Value.Default
+    default boolean getWriteArtifactShards() {
+        return false;
+    }
+
+    /**
+     * The order of the couplings written for each artifact. Default is {@link CouplingOrdering#SORTED}.
+     * {@link CouplingOrdering#UNORDERED} and {@link CouplingOrdering#CLASS} skip sorting the couplings,
+     * which is faster for large artifacts when the order does not matter.
+     *
+     * @return The coupling ordering.
+     */
+    @Value.Default
+    default CouplingOrdering getCouplingOrdering() {
+        return CouplingOrdering.SORTED;
+    }
+
+    /**
+     * How the output is split into multiple files (shards), which are listed in a manifest file.
+     * Default is {@link OutputSharding#NONE}, which writes a single file.
+     *
+     * @return The output sharding.
+     */
+    @Value.Default
+    default OutputSharding getOutputSharding() {
+        return OutputSharding.NONE;
+    }
+
+    /**
+     * The size limit of a shard in MB (before compression), when the output is sharded by size. Default is 256.
+     *
+     * @return The shard size limit in MB.
+     */
+    @Value.Default
+    default int getOutputShardMegabytes() {
+        return 256;
+    }
+
     class Builder extends ImmutableJarvizConfig.Builder {}
 }
@@ -0,0 +1,39 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.config;
+
+/**
+ * Specifies how the output is split into multiple files (shards), which can be consumed in parallel.
+ * The shards are listed in a manifest file next to them.
+ */
+public enum OutputSharding {
+
+    /**
+     * Writes a single output file.
+     */
+    NONE,
+
+    /**
+     * Writes the records of each application into its own file.
+     */
+    APPLICATION,
+
+    /**
+     * Starts a new file when the current one reaches the size limit (before compression).
+     */
+    SIZE
+}
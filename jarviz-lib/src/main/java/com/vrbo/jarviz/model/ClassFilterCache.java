@@ -0,0 +1,140 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.model;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.vrbo.jarviz.config.CouplingFilterConfig;
+
+import static com.vrbo.jarviz.model.CouplingFilterUtils.getPackageName;
+import static com.vrbo.jarviz.model.CouplingFilterUtils.getSimpleClassName;
+import static com.vrbo.jarviz.model.CouplingFilterUtils.matches;
+
+/**
+ * Applies a {@link CouplingFilterConfig} to the couplings, with the same result as
+ * {@link CouplingFilterUtils#filterMethodCoupling(CouplingFilterConfig, Method, Method)}.
+ * The package and class patterns only depend on the class names, so their outcomes are cached per class,
+ * separately for the source and the target classes. Therefore only the method patterns are matched
+ * for each coupling. The caches are bounded, and they can be shared by multiple threads.
+ */
+public class ClassFilterCache {
+
+    private static final int INCLUDED = 1;
+
+    private static final int EXCLUDED = 2;
+
+    private final CouplingFilterConfig couplingFilterConfig;
+
+    private final LoadingCache<String, Integer> sourceClassDecisions;
+
+    private final LoadingCache<String, Integer> targetClassDecisions;
+
+    /**
+     * @param couplingFilterConfig The filters.
+     * @param maxEntries           The maximum number of classes cached on each (source and target) side.
+     */
+    public ClassFilterCache(final CouplingFilterConfig couplingFilterConfig, final long maxEntries) {
+        this.couplingFilterConfig = couplingFilterConfig;
+        this.sourceClassDecisions = createCache(maxEntries, this::decideSourceClass);
+        this.targetClassDecisions = createCache(maxEntries, this::decideTargetClass);
+    }
+
+    /**
+     * @param source The source method.
+     * @param target The target method.
+     * @return Indicates whether the coupling should be kept (true) or discarded (false).
+     */
+    public boolean filterMethodCoupling(final Method source, final Method target) {
+        final int sourceDecision = sourceClassDecisions.getUnchecked(source.getClassName());
+        final int targetDecision = targetClassDecisions.getUnchecked(target.getClassName());
+        final Optional<CouplingFilter> include = couplingFilterConfig.getInclude();
+        final Optional<CouplingFilter> exclude = couplingFilterConfig.getExclude();
+
+        return (!include.isPresent() ||
+                (sourceDecision & targetDecision & INCLUDED) != 0 &&
+                matches(include.get().getSourceMethodMatcher(), source.getMethodName(), true) &&
+                matches(include.get().getTargetMethodMatcher(), target.getMethodName(), true))
+               &&
+               (!exclude.isPresent() ||
+                ((sourceDecision | targetDecision) & EXCLUDED) == 0 &&
+                !matches(exclude.get().getSourceMethodMatcher(), source.getMethodName(), false) &&
+                !matches(exclude.get().getTargetMethodMatcher(), target.getMethodName(), false));
+    }
+
+    /**
+     * @param className The fully qualified name of the target class.
+     * @return Indicates whether couplings to the given class could be kept (true) or will be discarded (false).
+     * @see CouplingFilterUtils#filterTargetClass(CouplingFilterConfig, String)
+     */
+    public boolean filterTargetClass(final String className) {
+        return (targetClassDecisions.getUnchecked(className) & INCLUDED) != 0;
+    }
+
+    /**
+     * @return The combined statistics of the source and target class caches.
+     */
+    public CacheStats getStats() {
+        return sourceClassDecisions.stats().plus(targetClassDecisions.stats());
+    }
+
+    private int decideSourceClass(final String className) {
+        final Optional<CouplingFilter> include = couplingFilterConfig.getInclude();
+        final Optional<CouplingFilter> exclude = couplingFilterConfig.getExclude();
+        final String packageName = getPackageName(className);
+        final String simpleClassName = getSimpleClassName(className);
+
+        return toDecision(
+            !include.isPresent() ||
+            matches(include.get().getSourcePackageMatcher(), packageName, true) &&
+            matches(include.get().getSourceClassMatcher(), simpleClassName, true),
+            exclude.isPresent() &&
+            (matches(exclude.get().getSourcePackageMatcher(), packageName, false) ||
+             matches(exclude.get().getSourceClassMatcher(), simpleClassName, false)));
+    }
+
+    private int decideTargetClass(final String className) {
+        final Optional<CouplingFilter> include = couplingFilterConfig.getInclude();
+        final Optional<CouplingFilter> exclude = couplingFilterConfig.getExclude();
+        final String packageName = getPackageName(className);
+        final String simpleClassName = getSimpleClassName(className);
+
+        return toDecision(
+            !include.isPresent() ||
+            matches(include.get().getTargetPackageMatcher(), packageName, true) &&
+            matches(include.get().getTargetClassMatcher(), simpleClassName, true),
+            exclude.isPresent() &&
+            (matches(exclude.get().getTargetPackageMatcher(), packageName, false) ||
+             matches(exclude.get().getTargetClassMatcher(), simpleClassName, false)));
+    }
+
+    private static int toDecision(final boolean included, final boolean excluded) {
+        return (included ? INCLUDED : 0) | (excluded ? EXCLUDED : 0);
+    }
+
+    private static LoadingCache<String, Integer> createCache(final long maxEntries,
+                                                             final Function<String, Integer> loader) {
+        return CacheBuilder.newBuilder()
+                           .maximumSize(maxEntries)
+                           .recordStats()
+                           .build(CacheLoader.from(loader::apply));
+    }
+}
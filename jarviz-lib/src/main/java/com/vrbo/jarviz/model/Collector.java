@@ -23,4 +23,30 @@ package com.vrbo.jarviz.model;
 public interface Collector {
 
     void collectMethodCoupling(final MethodCoupling methodCoupling);
+
+    /**
+     * Collects the coupling between the given source and target methods. This is called for every
+     * method invocation, therefore the implementations can override it to avoid creating a {@link MethodCoupling}.
+     *
+     * @param source The source method.
+     * @param target The target method.
+     */
+    default void collectMethodCoupling(final Method source, final Method target) {
+        collectMethodCoupling(new MethodCoupling.Builder()
+                                  .source(source)
+                                  .target(target)
+                                  .build());
+    }
+
+    /**
+     * Indicates whether a coupling to any method of the given target class could be collected.
+     * This allows the classes which do not reference such a class to be skipped without being visited.
+     * By default, every target class is accepted.
+     *
+     * @param className The fully qualified name of the target class, e.g.: foo.bar.MyClass
+     * @return False only if none of the couplings to the target class would be collected.
+     */
+    default boolean acceptsTargetClass(final String className) {
+        return true;
+    }
 }
@@ -139,6 +139,42 @@ public interface CouplingFilter {
         return getTargetMethod().map(Pattern::compile);
     }
 
+    @JsonIgnore
+    @Value.Lazy
+    default Optional<StringMatcher> getSourcePackageMatcher() {
+        return getSourcePackage().map(StringMatcher::compile);
+    }
+
+    @JsonIgnore
+    @Value.Lazy
+    default Optional<StringMatcher> getSourceClassMatcher() {
+        return getSourceClass().map(StringMatcher::compile);
+    }
+
+    @JsonIgnore
+    @Value.Lazy
+    default Optional<StringMatcher> getSourceMethodMatcher() {
+        return getSourceMethod().map(StringMatcher::compile);
+    }
+
+    @JsonIgnore
+    @Value.Lazy
+    default Optional<StringMatcher> getTargetPackageMatcher() {
+        return getTargetPackage().map(StringMatcher::compile);
+    }
+
+    @JsonIgnore
+    @Value.Lazy
+    default Optional<StringMatcher> getTargetClassMatcher() {
+        return getTargetClass().map(StringMatcher::compile);
+    }
+
+    @JsonIgnore
+    @Value.Lazy
+    default Optional<StringMatcher> getTargetMethodMatcher() {
+        return getTargetMethod().map(StringMatcher::compile);
+    }
+
     /**
      * Performs validation at the build time
      */
@@ -36,14 +36,79 @@ public final class CouplingFilterUtils {
      */
     public static boolean filterMethodCoupling(final CouplingFilterConfig couplingFilterConfig,
                                                final MethodCoupling coupling) {
-        return
-            couplingFilterConfig.getInclude()
-                                .map(f -> matchIncludeCoupling(f, coupling))
-                                .orElse(true)
-            &&
-            !couplingFilterConfig.getExclude()
-                                 .map(f -> matchExcludeCoupling(f, coupling))
-                                 .orElse(false);
+        return filterMethodCoupling(couplingFilterConfig, coupling.getSource(), coupling.getTarget());
+    }
+
+    /**
+     * Applying a {@link CouplingFilterConfig} against the coupling between the given source and target methods.
+     *
+     * @param couplingFilterConfig The filters.
+     * @param source               The source method.
+     * @param target               The target method.
+     * @return Indicates whether the coupling should be kept (true) or discarded (false).
+     * @see #filterMethodCoupling(CouplingFilterConfig, MethodCoupling)
+     */
+    public static boolean filterMethodCoupling(final CouplingFilterConfig couplingFilterConfig,
+                                               final Method source,
+                                               final Method target) {
+        final Optional<CouplingFilter> include = couplingFilterConfig.getInclude();
+        final Optional<CouplingFilter> exclude = couplingFilterConfig.getExclude();
+
+        return (!include.isPresent() || matchIncludeCoupling(include.get(), source, target)) &&
+               (!exclude.isPresent() || !matchExcludeCoupling(exclude.get(), source, target));
+    }
+
+    /**
+     * Applying the include filter of a {@link CouplingFilterConfig} against the target class of a coupling.
+     * Only the target package and target class patterns are considered, so if the return value is false
+     * none of the couplings to the given class can be retained, regardless of their source or method names.
+     * The exclude filter is not applied, as it can only discard more couplings.
+     *
+     * @param couplingFilterConfig The filters.
+     * @param className            The fully qualified name of the target class.
+     * @return Indicates whether couplings to the given class could be kept (true) or will be discarded (false).
+     */
+    public static boolean filterTargetClass(final CouplingFilterConfig couplingFilterConfig,
+                                            final String className) {
+        return couplingFilterConfig.getInclude()
+                                   .map(f -> matchIncludeTargetClass(f, className))
+                                   .orElse(true);
+    }
+
+    /**
+     * Matches the target package and target class patterns of an include {@link CouplingFilter} to a given class.
+     *
+     * @param filter    The filter.
+     * @param className The fully qualified name of the class.
+     * @return Indicates whether the given class matches the target patterns.
+     */
+    static boolean matchIncludeTargetClass(final CouplingFilter filter, final String className) {
+        return matches(filter.getTargetPackageMatcher(), getPackageName(className), true) &&
+               matches(filter.getTargetClassMatcher(), getSimpleClassName(className), true);
+    }
+
+    /**
+     * Package name of the class, the same as {@link Method#getPackageName()}.
+     * e.g.: For "foo.bar.MyClass", returns "foo.bar"
+     *
+     * @param className The fully qualified name of the class.
+     * @return The package name.
+     */
+    static String getPackageName(final String className) {
+        final int index = className.lastIndexOf('.');
+        return index > 0 ? className.substring(0, index) : "";
+    }
+
+    /**
+     * Simple class name, the same as {@link Method#getSimpleClassName()}.
+     * e.g.: For "foo.bar.MyClass", returns "MyClass"
+     *
+     * @param className The fully qualified name of the class.
+     * @return The simple class name.
+     */
+    static String getSimpleClassName(final String className) {
+        final int index = className.lastIndexOf('.');
+        return index > 0 ? className.substring(index + 1) : className;
     }
 
     /**
@@ -54,12 +119,16 @@ public final class CouplingFilterUtils {
      * @return Indicates whether the given coupling should be kept (true) or discarded (false).
      */
     static boolean matchIncludeCoupling(final CouplingFilter filter, final MethodCoupling coupling) {
-        return matchString(filter.getSourcePackagePattern(), coupling.getSource().getPackageName(), true) &&
-               matchString(filter.getSourceClassPattern(), coupling.getSource().getSimpleClassName(), true) &&
-               matchString(filter.getSourceMethodPattern(), coupling.getSource().getMethodName(), true) &&
-               matchString(filter.getTargetPackagePattern(), coupling.getTarget().getPackageName(), true) &&
-               matchString(filter.getTargetClassPattern(), coupling.getTarget().getSimpleClassName(), true) &&
-               matchString(filter.getTargetMethodPattern(), coupling.getTarget().getMethodName(), true);
+        return matchIncludeCoupling(filter, coupling.getSource(), coupling.getTarget());
+    }
+
+    private static boolean matchIncludeCoupling(final CouplingFilter filter, final Method source, final Method target) {
+        return matches(filter.getSourcePackageMatcher(), source.getPackageName(), true) &&
+               matches(filter.getSourceClassMatcher(), source.getSimpleClassName(), true) &&
+               matches(filter.getSourceMethodMatcher(), source.getMethodName(), true) &&
+               matches(filter.getTargetPackageMatcher(), target.getPackageName(), true) &&
+               matches(filter.getTargetClassMatcher(), target.getSimpleClassName(), true) &&
+               matches(filter.getTargetMethodMatcher(), target.getMethodName(), true);
     }
 
     /**
@@ -70,12 +139,28 @@ public final class CouplingFilterUtils {
      * @return Indicates whether the given coupling should be excluded (true) or kept (false).
      */
     static boolean matchExcludeCoupling(final CouplingFilter filter, final MethodCoupling coupling) {
-        return matchString(filter.getSourcePackagePattern(), coupling.getSource().getPackageName(), false) ||
-               matchString(filter.getSourceClassPattern(), coupling.getSource().getSimpleClassName(), false) ||
-               matchString(filter.getSourceMethodPattern(), coupling.getSource().getMethodName(), false) ||
-               matchString(filter.getTargetPackagePattern(), coupling.getTarget().getPackageName(), false) ||
-               matchString(filter.getTargetClassPattern(), coupling.getTarget().getSimpleClassName(), false) ||
-               matchString(filter.getTargetMethodPattern(), coupling.getTarget().getMethodName(), false);
+        return matchExcludeCoupling(filter, coupling.getSource(), coupling.getTarget());
+    }
+
+    private static boolean matchExcludeCoupling(final CouplingFilter filter, final Method source, final Method target) {
+        return matches(filter.getSourcePackageMatcher(), source.getPackageName(), false) ||
+               matches(filter.getSourceClassMatcher(), source.getSimpleClassName(), false) ||
+               matches(filter.getSourceMethodMatcher(), source.getMethodName(), false) ||
+               matches(filter.getTargetPackageMatcher(), target.getPackageName(), false) ||
+               matches(filter.getTargetClassMatcher(), target.getSimpleClassName(), false) ||
+               matches(filter.getTargetMethodMatcher(), target.getMethodName(), false);
+    }
+
+    /**
+     * Matches a given string to an optional compiled RegEx pattern (see {@link StringMatcher}). If matcher is missing, provided default value is returned.
+     *
+     * @param matcher      The matcher compiled from the RegEx pattern.
+     * @param string       The string to match to the given pattern.
+     * @param defaultValue The default value to return when there is no matcher.
+     * @return Indicates whether the given string matches the pattern, else return provided default value.
+     */
+    static boolean matches(final Optional<StringMatcher> matcher, final String string, final boolean defaultValue) {
+        return matcher.isPresent() ? matcher.get().matches(string) : defaultValue;
     }
 
     /**
@@ -87,7 +172,6 @@ public final class CouplingFilterUtils {
      * @return Indicates whether the given coupling matches the pattern, else return provided default value.
      */
     static boolean matchString(final Optional<Pattern> pattern, final String string, final boolean defaultValue) {
-        return pattern.map(p -> p.matcher(string).matches())
-                      .orElse(defaultValue);
+        return pattern.isPresent() ? pattern.get().matcher(string).matches() : defaultValue;
     }
 }
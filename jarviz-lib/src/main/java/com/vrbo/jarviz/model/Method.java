@@ -28,7 +28,7 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 /**
  * Represents a fully qualified name of a method
  */
-@Value.Immutable
+@Value.Immutable(prehash = true)
 @JsonSerialize(as = ImmutableMethod.class)
 @JsonDeserialize(as = ImmutableMethod.class)
 @JsonInclude(value = JsonInclude.Include.NON_EMPTY)
@@ -69,11 +69,12 @@ public interface Method {
     }
 
     /**
-     * Simple class name
+     * Simple class name, computed once per instance
      * e.g.: For "foo.bar.MyClass", returns "MyClass"
      *
      * @return The simple class name.
      */
+    @Value.Lazy
     default String getSimpleClassName() {
         final String fullName = getClassName();
         final int index = fullName.lastIndexOf('.');
@@ -81,11 +82,12 @@ public interface Method {
     }
 
     /**
-     * Package name of the class
+     * Package name of the class, computed once per instance
      * e.g.: For "foo.bar.MyClass", returns "foo.bar"
      *
      * @return The package name.
      */
+    @Value.Lazy
     default String getPackageName() {
         final String fullName = getClassName();
         final int index = fullName.lastIndexOf('.');
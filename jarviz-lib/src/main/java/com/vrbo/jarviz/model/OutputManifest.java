@@ -0,0 +1,51 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.model;
+
+import java.util.List;
+
+import org.immutables.value.Value;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Lists the output files (shards) of a sharded output, in the order of the records.
+ */
+@Value.Immutable
+@JsonSerialize(as = ImmutableOutputManifest.class)
+@JsonDeserialize(as = ImmutableOutputManifest.class)
+@JsonInclude(value = JsonInclude.Include.NON_EMPTY)
+public interface OutputManifest {
+
+    /**
+     * The output format of the shards (e.g. "jsonl").
+     *
+     * @return The output format.
+     */
+    String getFormat();
+
+    /**
+     * The shards, in the order of the records.
+     *
+     * @return The shards.
+     */
+    List<OutputShard> getShards();
+
+    class Builder extends ImmutableOutputManifest.Builder {}
+}
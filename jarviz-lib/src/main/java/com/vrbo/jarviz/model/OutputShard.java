@@ -0,0 +1,65 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.model;
+
+import java.util.Optional;
+
+import org.immutables.value.Value;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * A single output file of a sharded output, as listed in the {@link OutputManifest}.
+ */
+@Value.Immutable
+@JsonSerialize(as = ImmutableOutputShard.class)
+@JsonDeserialize(as = ImmutableOutputShard.class)
+@JsonInclude(value = JsonInclude.Include.NON_EMPTY)
+public interface OutputShard {
+
+    /**
+     * The name of the shard file, in the same directory as the manifest.
+     *
+     * @return The file name.
+     */
+    String getFileName();
+
+    /**
+     * The application of the records, when the output is sharded by application.
+     *
+     * @return The application name.
+     */
+    Optional<String> getApplicationName();
+
+    /**
+     * The number of coupling records in the shard.
+     *
+     * @return The record count.
+     */
+    long getRecordCount();
+
+    /**
+     * The size of the shard file in bytes.
+     *
+     * @return The byte count.
+     */
+    long getByteCount();
+
+    class Builder extends ImmutableOutputShard.Builder {}
+}
@@ -0,0 +1,42 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.model;
+
+/**
+ * Matches the whole of a string, with the same result as {@link java.util.regex.Matcher#matches()}
+ * for the RegEx pattern it was compiled from.
+ */
+@FunctionalInterface
+public interface StringMatcher {
+
+    boolean matches(final String string);
+
+    /**
+     * Compiles a RegEx pattern into a matcher. The patterns which are literals, prefixes (e.g. "com\\.xyz\\..*"),
+     * suffixes, infixes or alternations of these (e.g. "^(com\\.xyz\\.foo|com\\.xyz\\.bar).*$") are matched with
+     * plain string operations, and the rest are matched with {@link java.util.regex.Pattern}.
+     * Note that the class, package and method names never contain line terminators, which are otherwise
+     * not matched by ".*" in a RegEx.
+     *
+     * @param regex The RegEx pattern.
+     * @return The matcher.
+     * @throws java.util.regex.PatternSyntaxException If the pattern is not valid.
+     */
+    static StringMatcher compile(final String regex) {
+        return StringMatcherCompiler.compile(regex);
+    }
+}
@@ -0,0 +1,320 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles the RegEx patterns into {@link StringMatcher}s, see {@link StringMatcher#compile(String)}.
+ * A pattern is parsed as an alternation of terms, where each term is a literal with an optional leading
+ * and/or trailing ".*", and the literal can contain a single group of alternative literals.
+ * Any other construct (character classes, quantifiers, escapes like "\\d", etc.) falls back to the RegEx.
+ */
+final class StringMatcherCompiler {
+
+    private static final String ANY = ".*";
+
+    private static final String META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    private StringMatcherCompiler() {}
+
+    static StringMatcher compile(final String regex) {
+        final Pattern pattern = Pattern.compile(regex);
+        final List<Term> terms = parse(regex);
+        if (terms == null) {
+            return new RegexMatcher(pattern);
+        }
+
+        return new LiteralMatcher(terms);
+    }
+
+    /**
+     * @return The terms of the pattern, or null if the pattern cannot be matched with the literals.
+     */
+    static List<Term> parse(final String regex) {
+        String body = regex;
+        if (body.startsWith("^")) {
+            body = body.substring(1);
+        }
+        if (body.endsWith("$") && !isEscaped(body, body.length() - 1)) {
+            body = body.substring(0, body.length() - 1);
+        }
+
+        final List<String> alternatives = splitAlternatives(body);
+        if (alternatives == null) {
+            return null;
+        }
+
+        final List<Term> terms = new ArrayList<>();
+        for (String alternative : alternatives) {
+            final Term term = parseTerm(alternative);
+            if (term == null) {
+                return null;
+            }
+            terms.add(term);
+        }
+
+        return terms;
+    }
+
+    private static Term parseTerm(final String alternative) {
+        String body = alternative;
+        final boolean anyPrefix = body.startsWith(ANY);
+        if (anyPrefix) {
+            body = body.substring(ANY.length());
+        }
+        final boolean anySuffix = body.endsWith(ANY) && !isEscaped(body, body.length() - ANY.length());
+        if (anySuffix) {
+            body = body.substring(0, body.length() - ANY.length());
+        }
+
+        final List<String> literals = parseLiterals(body);
+        return literals != null ? new Term(anyPrefix, anySuffix, literals) : null;
+    }
+
+    /**
+     * Parses a sequence of literal characters with at most one group of alternative literals,
+     * e.g. "com\\.xyz\\.(foo|bar)", and returns all the literals it can match.
+     */
+    private static List<String> parseLiterals(final String body) {
+        final StringBuilder prefix = new StringBuilder();
+        List<String> group = null;
+        final StringBuilder suffix = new StringBuilder();
+
+        int i = 0;
+        while (i < body.length()) {
+            final char c = body.charAt(i);
+            if (c == '(') {
+                final int end = body.indexOf(')', i);
+                if (group != null || end < 0) {
+                    return null;
+                }
+
+                final String groupBody = body.startsWith("(?:", i) ? body.substring(i + 3, end) : body.substring(i + 1, end);
+                group = new ArrayList<>();
+                for (String alternative : groupBody.split("\\|", -1)) {
+                    final String literal = parseLiteral(alternative);
+                    if (literal == null) {
+                        return null;
+                    }
+                    group.add(literal);
+                }
+                i = end + 1;
+            } else {
+                final int length = literalCharLength(body, i);
+                if (length == 0) {
+                    return null;
+                }
+                (group == null ? prefix : suffix).append(body.charAt(i + length - 1));
+                i += length;
+            }
+        }
+
+        if (group == null) {
+            return Collections.singletonList(prefix.toString());
+        }
+
+        final List<String> literals = new ArrayList<>();
+        for (String literal : group) {
+            literals.add(prefix + literal + suffix);
+        }
+        return literals;
+    }
+
+    private static String parseLiteral(final String body) {
+        final StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < body.length()) {
+            final int length = literalCharLength(body, i);
+            if (length == 0) {
+                return null;
+            }
+            literal.append(body.charAt(i + length - 1));
+            i += length;
+        }
+        return literal.toString();
+    }
+
+    /**
+     * @return The number of characters (1 or 2 if escaped) of the literal character at the index,
+     * or 0 if it is not a literal character.
+     */
+    private static int literalCharLength(final String body, final int index) {
+        final char c = body.charAt(index);
+        if (c == '\\') {
+            // Only the escaped meta characters are literals, e.g. "\\." but not "\\d"
+            return index + 1 < body.length() && META_CHARACTERS.indexOf(body.charAt(index + 1)) >= 0 ? 2 : 0;
+        }
+
+        return META_CHARACTERS.indexOf(c) < 0 ? 1 : 0;
+    }
+
+    /**
+     * Splits the pattern by the "|" which are not escaped or in a group.
+     *
+     * @return The alternatives, or null if the pattern has a character class or unbalanced groups.
+     */
+    private static List<String> splitAlternatives(final String body) {
+        final List<String> alternatives = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < body.length(); i++) {
+            final char c = body.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                return null;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (--depth < 0) {
+                    return null;
+                }
+            } else if (c == '|' && depth == 0) {
+                alternatives.add(body.substring(start, i));
+                start = i + 1;
+            }
+        }
+
+        if (depth != 0) {
+            return null;
+        }
+
+        alternatives.add(body.substring(start));
+        return alternatives;
+    }
+
+    private static boolean isEscaped(final String string, final int index) {
+        int backslashes = 0;
+        for (int i = index - 1; i >= 0 && string.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    /**
+     * A literal with an optional leading and/or trailing ".*".
+     */
+    static final class Term {
+
+        private final boolean anyPrefix;
+
+        private final boolean anySuffix;
+
+        private final List<String> literals;
+
+        private Term(final boolean anyPrefix, final boolean anySuffix, final List<String> literals) {
+            this.anyPrefix = anyPrefix;
+            this.anySuffix = anySuffix;
+            this.literals = literals;
+        }
+    }
+
+    /**
+     * Matches the strings that are equal to, start with, end with or contain any of the literals.
+     */
+    static final class LiteralMatcher implements StringMatcher {
+
+        private final Set<String> exactLiterals = new HashSet<>();
+
+        private final String[] prefixes;
+
+        private final String[] suffixes;
+
+        private final String[] infixes;
+
+        private LiteralMatcher(final List<Term> terms) {
+            final List<String> prefixList = new ArrayList<>();
+            final List<String> suffixList = new ArrayList<>();
+            final List<String> infixList = new ArrayList<>();
+            for (Term term : terms) {
+                if (term.anyPrefix && term.anySuffix) {
+                    infixList.addAll(term.literals);
+                } else if (term.anySuffix) {
+                    prefixList.addAll(term.literals);
+                } else if (term.anyPrefix) {
+                    suffixList.addAll(term.literals);
+                } else {
+                    exactLiterals.addAll(term.literals);
+                }
+            }
+
+            this.prefixes = prefixList.toArray(new String[0]);
+            this.suffixes = suffixList.toArray(new String[0]);
+            this.infixes = infixList.toArray(new String[0]);
+        }
+
+        @Override
+        public boolean matches(final String string) {
+            if (exactLiterals.contains(string)) {
+                return true;
+            }
+            for (String prefix : prefixes) {
+                if (string.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            for (String suffix : suffixes) {
+                if (string.endsWith(suffix)) {
+                    return true;
+                }
+            }
+            for (String infix : infixes) {
+                if (string.contains(infix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "LiteralMatcher{exact=" + exactLiterals +
+                   ", prefixes=" + Arrays.toString(prefixes) +
+                   ", suffixes=" + Arrays.toString(suffixes) +
+                   ", infixes=" + Arrays.toString(infixes) + "}";
+        }
+    }
+
+    /**
+     * Matches the strings with a RegEx.
+     */
+    static final class RegexMatcher implements StringMatcher {
+
+        private final Pattern pattern;
+
+        private RegexMatcher(final Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        public boolean matches(final String string) {
+            return pattern.matcher(string).matches();
+        }
+
+        @Override
+        public String toString() {
+            return "RegexMatcher{" + pattern + "}";
+        }
+    }
+}
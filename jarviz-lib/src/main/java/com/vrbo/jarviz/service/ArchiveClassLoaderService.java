@@ -0,0 +1,201 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.annotation.Nonnull;
+
+import jakarta.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.vrbo.jarviz.model.Artifact;
+import com.vrbo.jarviz.model.ShadowClass;
+
+/**
+ * Reads the class files directly from the entries of the artifact archive (JAR or WAR),
+ * without creating a class loader or scanning a class path.
+ * The archive is kept open only while its classes are being read and is always closed deterministically.
+ */
+public class ArchiveClassLoaderService implements ClassLoaderService {
+
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private final Logger log = LoggerFactory.getLogger(ArchiveClassLoaderService.class);
+
+    private final ArtifactDiscoveryService artifactDiscoveryService;
+
+    @Inject
+    public ArchiveClassLoaderService(final ArtifactDiscoveryService artifactDiscoveryService) {
+        this.artifactDiscoveryService = artifactDiscoveryService;
+    }
+
+    /**
+     * This will scan the archive for all the class entries and will return them ordered by
+     * the fully qualified class names in the format of "com.foo.bar.MyClass".
+     *
+     * @param artifact        The artifact to be scanned.
+     * @param classNameFilter A filter to conditionally select classes in the top level package.
+     *                        Class name will be in the format "com.foo.bar.MyClass".
+     * @return A list of classes found in the archive (matching the above criteria).
+     */
+    @Override
+    public List<ShadowClass> getAllClasses(@Nonnull final Artifact artifact,
+                                           @Nonnull final Predicate<String> classNameFilter) {
+        try (Stream<ShadowClass> classes = streamAllClasses(artifact, classNameFilter)) {
+            return classes.collect(ImmutableList.toImmutableList());
+        }
+    }
+
+    /**
+     * This will scan the archive for all the class entries and will return a stream ordered by
+     * the fully qualified class names. The bytes of a class are read from the archive only when
+     * the class is consumed from the stream, so only the classes in flight are held in the memory.
+     * The archive remains open until the returned stream is closed.
+     *
+     * @param artifact        The artifact to be scanned.
+     * @param classNameFilter A filter to conditionally select classes in the top level package.
+     *                        Class name will be in the format "com.foo.bar.MyClass".
+     * @return A stream of classes found in the archive (matching the above criteria).
+     */
+    @Override
+    public Stream<ShadowClass> streamAllClasses(@Nonnull final Artifact artifact,
+                                                @Nonnull final Predicate<String> classNameFilter) {
+        File archiveFile = discoverArtifact(artifact);
+        if (!archiveFile.exists()) {
+            // The artifact can be deleted after it is discovered (e.g. evicted from the artifact cache by a process
+            // which does not pin it), in which case it is fetched again
+            archiveFile = discoverArtifact(artifact);
+        }
+
+        final String archiveFilePath = archiveFile.getPath();
+        if (!archiveFile.exists()) {
+            // The artifact can be missing when the Maven errors are ignored (see continueOnMavenError)
+            log.warn("Jar file does not exist, no classes to analyze: {}", archiveFilePath);
+            return Stream.empty();
+        }
+
+        final ZipFile zipFile;
+        try {
+            zipFile = new ZipFile(archiveFile);
+        } catch (IOException e) {
+            log.error("Unable to open jar {}", archiveFilePath, e);
+            throw new IllegalStateException(String.format("Unable to open jar %s", archiveFilePath), e);
+        }
+
+        try {
+            return ImmutableList.copyOf(findClassEntries(zipFile, classNameFilter))
+                                .stream()
+                                .map(entry -> readShadowClassUnchecked(zipFile, entry))
+                                .onClose(() -> closeArchive(zipFile, archiveFilePath));
+        } catch (RuntimeException e) {
+            closeArchive(zipFile, archiveFilePath);
+            throw e;
+        }
+    }
+
+    /**
+     * Finds all the class entries in the archive, ordered by the class name.
+     * If the archive contains duplicate entries for the same class, only the first one is selected.
+     *
+     * @param zipFile         The archive.
+     * @param classNameFilter A filter to conditionally select classes.
+     * @return The class entries ordered by the class name.
+     */
+    static Collection<ZipEntry> findClassEntries(@Nonnull final ZipFile zipFile,
+                                                 @Nonnull final Predicate<String> classNameFilter) {
+        final SortedMap<String, ZipEntry> entries = new TreeMap<>();
+        zipFile.stream()
+               .filter(ArchiveClassLoaderService::isClassEntry)
+               .forEach(e -> entries.putIfAbsent(entryNameToClassName(e.getName()), e));
+        entries.keySet().removeIf(classNameFilter.negate());
+
+        return entries.values();
+    }
+
+    /**
+     * Reads the given class entry from the archive into a {@link ShadowClass}.
+     *
+     * @param zipFile The archive.
+     * @param entry   The class entry.
+     * @return The {@link ShadowClass}.
+     * @throws IOException If the entry cannot be read.
+     */
+    static ShadowClass readShadowClass(@Nonnull final ZipFile zipFile, @Nonnull final ZipEntry entry) throws IOException {
+        try (InputStream inputStream = zipFile.getInputStream(entry)) {
+            return new ShadowClass.Builder()
+                       .className(entryNameToClassName(entry.getName()))
+                       .classBytes(ByteStreams.toByteArray(inputStream))
+                       .build();
+        }
+    }
+
+    private ShadowClass readShadowClassUnchecked(final ZipFile zipFile, final ZipEntry entry) {
+        try {
+            return readShadowClass(zipFile, entry);
+        } catch (IOException e) {
+            log.error("Unable to load class {}", entry.getName(), e);
+            throw new IllegalStateException(String.format("Unable to load class %s", entry.getName()), e);
+        }
+    }
+
+    private void closeArchive(final ZipFile zipFile, final String archiveFilePath) {
+        try {
+            zipFile.close();
+        } catch (IOException e) {
+            log.error("Unable to close jar {}", archiveFilePath, e);
+            throw new IllegalStateException(String.format("Unable to close jar %s", archiveFilePath), e);
+        }
+    }
+
+    private File discoverArtifact(final Artifact artifact) {
+        try {
+            return artifactDiscoveryService.discoverArtifact(artifact);
+        } catch (ArtifactNotFoundException e) {
+            log.error("Jar file does not exist: {}", artifact.toFileName(), e);
+            throw new IllegalArgumentException(String.format("Jar file does not exist: %s", artifact.toFileName()), e);
+        }
+    }
+
+    private static boolean isClassEntry(final ZipEntry entry) {
+        return !entry.isDirectory() && entry.getName().endsWith(CLASS_FILE_EXTENSION);
+    }
+
+    /**
+     * Eg: com/homeaway/MyClass.class to com.homeaway.MyClass
+     *
+     * @param entryName Name of the archive entry.
+     * @return The class name.
+     */
+    static String entryNameToClassName(@Nonnull final String entryName) {
+        return entryName.substring(0, entryName.length() - CLASS_FILE_EXTENSION.length()).replace('/', '.');
+    }
+}
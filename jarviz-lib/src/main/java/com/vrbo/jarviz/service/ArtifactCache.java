@@ -0,0 +1,363 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vrbo.jarviz.model.Artifact;
+
+/**
+ * Manages the artifact directory as a cache limited to {@code maxBytes}, which can be shared by the Jarviz processes
+ * on the same host (e.g. a persistent volume mounted by every job). An index file in the directory keeps
+ * the coordinates, the size and the last access time of every artifact file, and the least recently used artifacts
+ * are deleted once the directory exceeds the limit. The index is only read and written while holding
+ * an exclusive lock on a lock file in the directory, so concurrent processes never lose each other's updates.
+ *
+ * The artifacts of a running analysis are pinned until they are analyzed, so that neither this process nor
+ * the other processes sharing the directory evict them in the meantime, and the limit can be exceeded by
+ * the pinned artifacts. The pins of each cache are written into its own pin file, which is locked for as long as
+ * it has pins, so the pin files left by a process which died (i.e. not locked anymore) are deleted.
+ *
+ * The files which are not in the index (e.g. copied into the directory by hand) are added with their last modified
+ * time, and the files deleted by hand are dropped from the index. A limit of zero leaves the directory unmanaged.
+ */
+final class ArtifactCache {
+
+    static final String INDEX_FILE_NAME = ".jarviz-cache-index";
+
+    static final String LOCK_FILE_NAME = ".jarviz-cache.lock";
+
+    static final String PIN_FILE_PREFIX = ".jarviz-pins-";
+
+    // A FileLock is held by the whole JVM, so the threads of this process take turns before locking the file
+    private static final Object PROCESS_LOCK = new Object();
+
+    // The pin files locked by this JVM, which are never opened by another cache: closing any channel of a file
+    // can release the locks held by the JVM on it
+    private static final Map<Path, ArtifactCache> PINNING_CACHES = new HashMap<>();
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    private final Path pinFile;
+
+    // The number of times each artifact file is pinned, guarded by PROCESS_LOCK
+    private final Map<String, Integer> pinCounts = new HashMap<>();
+
+    private FileChannel pinChannel = null;
+
+    ArtifactCache(final String directory, final long maxBytes) {
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.pinFile = this.directory.resolve(PIN_FILE_PREFIX + UUID.randomUUID());
+    }
+
+    boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * Records the access of the artifacts found in (or fetched into) the cache, and evicts the least recently used
+     * artifacts if the cache exceeds its limit. The artifacts accessed or pinned are never evicted, even if they
+     * exceed the limit on their own. Any error is only logged, as the artifacts can still be analyzed.
+     *
+     * @param artifacts The artifacts accessed.
+     */
+    void recordAccess(final Collection<Artifact> artifacts) {
+        if (!isEnabled() || artifacts.isEmpty()) {
+            return;
+        }
+
+        withCacheLock(() -> {
+            final Map<String, Entry> index = readIndex();
+            final long now = System.currentTimeMillis();
+            for (Artifact artifact : artifacts) {
+                final File file = directory.resolve(artifact.toFileName()).toFile();
+                if (file.isFile()) {
+                    index.put(artifact.toFileName(), new Entry(artifact.toMavenId(), file.length(), now));
+                }
+            }
+
+            final Set<String> retainedFileNames = readPinnedFileNames();
+            artifacts.forEach(a -> retainedFileNames.add(a.toFileName()));
+            evict(index, retainedFileNames);
+            writeIndex(index);
+        });
+    }
+
+    /**
+     * Pins the artifacts, so that they are not evicted (by any process) until they are unpinned.
+     * An artifact pinned more than once stays pinned until it is unpinned as many times.
+     *
+     * @param artifacts The artifacts.
+     */
+    void pin(final Collection<Artifact> artifacts) {
+        if (!isEnabled() || artifacts.isEmpty()) {
+            return;
+        }
+
+        withCacheLock(() -> {
+            artifacts.forEach(a -> pinCounts.merge(a.toFileName(), 1, Integer::sum));
+            writePins();
+        });
+    }
+
+    /**
+     * Unpins the artifacts pinned by {@link #pin(Collection)}.
+     *
+     * @param artifacts The artifacts.
+     */
+    void unpin(final Collection<Artifact> artifacts) {
+        if (!isEnabled() || artifacts.isEmpty()) {
+            return;
+        }
+
+        withCacheLock(() -> {
+            for (Artifact artifact : artifacts) {
+                pinCounts.computeIfPresent(artifact.toFileName(), (fileName, count) -> count > 1 ? count - 1 : null);
+            }
+            writePins();
+        });
+    }
+
+    private void withCacheLock(final CacheAction action) {
+        synchronized (PROCESS_LOCK) {
+            try {
+                Files.createDirectories(directory);
+                try (FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE_NAME),
+                                                            StandardOpenOption.CREATE,
+                                                            StandardOpenOption.WRITE)) {
+                    final FileLock lock = channel.lock();
+                    try {
+                        action.run();
+                    } finally {
+                        lock.release();
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Unable to update the artifact cache in {}", directory, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the pins into the pin file, which stays locked while there are pins, and is deleted once there are none.
+     */
+    private void writePins() throws IOException {
+        if (pinCounts.isEmpty()) {
+            if (pinChannel != null) {
+                // Also releases the lock
+                pinChannel.close();
+                pinChannel = null;
+                PINNING_CACHES.remove(pinFile);
+                Files.deleteIfExists(pinFile);
+            }
+            return;
+        }
+
+        if (pinChannel == null) {
+            pinChannel = FileChannel.open(pinFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            pinChannel.lock();
+            PINNING_CACHES.put(pinFile, this);
+        }
+
+        final List<String> fileNames = new ArrayList<>(pinCounts.keySet());
+        fileNames.sort(null);
+        final ByteBuffer buffer = ByteBuffer.wrap((String.join("\n", fileNames) + "\n").getBytes(StandardCharsets.UTF_8));
+        pinChannel.truncate(0);
+        pinChannel.position(0);
+        while (buffer.hasRemaining()) {
+            pinChannel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads the artifacts pinned by all the caches sharing the directory, in this process or in the other processes,
+     * and deletes the pin files which are not locked anymore (i.e. their process died).
+     */
+    private Set<String> readPinnedFileNames() throws IOException {
+        final Set<String> fileNames = new HashSet<>();
+        final List<Path> pinFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            pinFiles = files.filter(f -> f.getFileName().toString().startsWith(PIN_FILE_PREFIX))
+                            .collect(Collectors.toList());
+        }
+
+        for (Path file : pinFiles) {
+            final ArtifactCache pinningCache = PINNING_CACHES.get(file);
+            if (pinningCache != null) {
+                fileNames.addAll(pinningCache.pinCounts.keySet());
+                continue;
+            }
+
+            try {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+                     FileLock lock = channel.tryLock()) {
+                    if (lock != null) {
+                        Files.delete(file);
+                        log.info("Deleted the pin file of a process which is not running anymore: {}", file);
+                        continue;
+                    }
+                }
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    if (!line.isEmpty()) {
+                        fileNames.add(line);
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // Unpinned in the meantime
+            }
+        }
+
+        return fileNames;
+    }
+
+    /**
+     * Deletes the least recently used artifacts, except the given ones, until the cache is within its limit.
+     */
+    private void evict(final Map<String, Entry> index, final Collection<String> retainedFileNames) {
+        long totalBytes = index.values().stream().mapToLong(e -> e.size).sum();
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+
+        final List<Map.Entry<String, Entry>> entries = new ArrayList<>(index.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().lastAccess)
+                               .thenComparing(Map.Entry::getKey));
+        for (Map.Entry<String, Entry> entry : entries) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            if (retainedFileNames.contains(entry.getKey())) {
+                continue;
+            }
+
+            try {
+                Files.deleteIfExists(directory.resolve(entry.getKey()));
+                index.remove(entry.getKey());
+                totalBytes -= entry.getValue().size;
+                log.info("Evicted the artifact {} from the artifact cache", entry.getKey());
+            } catch (IOException e) {
+                log.warn("Unable to evict the artifact {} from the artifact cache", entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Reads the index, reconciled with the artifact files which are actually in the directory.
+     */
+    private Map<String, Entry> readIndex() throws IOException {
+        final Map<String, Entry> indexed = new HashMap<>();
+        final Path indexFile = directory.resolve(INDEX_FILE_NAME);
+        if (Files.exists(indexFile)) {
+            for (String line : Files.readAllLines(indexFile, StandardCharsets.UTF_8)) {
+                final String[] fields = line.split("\t", -1);
+                if (fields.length == 4) {
+                    indexed.put(fields[0], new Entry(fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+                }
+            }
+        }
+
+        // The hidden files are the index, the lock and the temporary files of the artifacts being copied
+        final Map<String, Entry> index = new HashMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                final String fileName = file.getFileName().toString();
+                if (fileName.startsWith(".") || !Files.isRegularFile(file)) {
+                    continue;
+                }
+
+                final Entry entry = indexed.get(fileName);
+                index.put(fileName,
+                          entry != null ? entry : new Entry("", Files.size(file), Files.getLastModifiedTime(file).toMillis()));
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Writes the index through a temporary file, so that the index is never left partially written.
+     */
+    private void writeIndex(final Map<String, Entry> index) throws IOException {
+        final List<String> lines = new ArrayList<>(index.size());
+        index.forEach((fileName, entry) -> lines.add(String.join("\t",
+                                                                fileName,
+                                                                entry.mavenId,
+                                                                Long.toString(entry.size),
+                                                                Long.toString(entry.lastAccess))));
+        lines.sort(null);
+
+        final Path tempFile = Files.createTempFile(directory, ".jarviz-", ".tmp");
+        try {
+            Files.write(tempFile, lines, StandardCharsets.UTF_8);
+            Files.move(tempFile, directory.resolve(INDEX_FILE_NAME),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CacheAction {
+
+        void run() throws IOException;
+    }
+
+    private static final class Entry {
+
+        private final String mavenId;
+
+        private final long size;
+
+        private final long lastAccess;
+
+        private Entry(final String mavenId, final long size, final long lastAccess) {
+            this.mavenId = mavenId;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
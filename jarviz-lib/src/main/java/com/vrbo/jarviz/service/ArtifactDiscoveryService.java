@@ -17,10 +17,48 @@
 package com.vrbo.jarviz.service;
 
 import java.io.File;
+import java.util.Collection;
 
 import com.vrbo.jarviz.model.Artifact;
 
 public interface ArtifactDiscoveryService {
 
     File discoverArtifact(final Artifact artifact) throws ArtifactNotFoundException;
+
+    /**
+     * Checks whether {@link #discoverArtifact(Artifact)} can return the artifact without fetching it, e.g. because
+     * it is in the artifact directory or in a local Maven repository. By default, every artifact is fetched.
+     *
+     * @param artifact The artifact.
+     * @return True if the artifact is available without fetching it.
+     */
+    default boolean isArtifactAvailable(final Artifact artifact) {
+        return false;
+    }
+
+    /**
+     * Resolves the artifacts ahead of {@link #discoverArtifact(Artifact)}, e.g. to fetch all the missing artifacts
+     * at once. This is best effort, any artifact which cannot be resolved is reported by
+     * {@link #discoverArtifact(Artifact)} instead. By default, nothing is resolved ahead.
+     *
+     * @param artifacts The artifacts to be discovered.
+     */
+    default void resolveArtifacts(final Collection<Artifact> artifacts) {}
+
+    /**
+     * Keeps the artifacts from being evicted from the artifact cache (see
+     * {@link com.vrbo.jarviz.config.JarvizConfig#getArtifactCacheMaxMegabytes()}), also by the other processes
+     * sharing it, until they are unpinned. An artifact pinned more than once stays pinned until it is unpinned
+     * as many times. By default, nothing is pinned.
+     *
+     * @param artifacts The artifacts to be analyzed.
+     */
+    default void pinArtifacts(final Collection<Artifact> artifacts) {}
+
+    /**
+     * Unpins the artifacts pinned by {@link #pinArtifacts(Collection)}, e.g. once they are analyzed.
+     *
+     * @param artifacts The artifacts.
+     */
+    default void unpinArtifacts(final Collection<Artifact> artifacts) {}
 }
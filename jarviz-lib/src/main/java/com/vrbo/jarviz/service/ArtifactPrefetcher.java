@@ -0,0 +1,186 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vrbo.jarviz.model.Artifact;
+
+/**
+ * Resolves the next artifacts of the application set on a background thread while the current ones are analyzed,
+ * so that fetching the artifacts overlaps with the analysis. At most {@code depth} artifacts, starting from the
+ * oldest artifact not yet analyzed, are resolved ahead, and the next artifact is not resolved while the artifacts
+ * fetched ahead hold {@code maxBytes} or more on disk (zero is unlimited), so the disk budget can only be exceeded
+ * by the last artifact fetched. The artifacts which are available without fetching them (see
+ * {@link ArtifactDiscoveryService#isArtifactAvailable}) do not count towards the disk budget. Each artifact can be analyzed as soon as it is resolved.
+ * Without a disk budget, the artifacts within the depth are first resolved together with
+ * {@link ArtifactDiscoveryService#resolveArtifacts}, which can fetch them in a single batch. With a disk budget,
+ * they are resolved one by one, as their sizes are not known before they are fetched.
+ *
+ * Each artifact is identified by its sequence number in the application set, the same as the analysis.
+ * The analysis of an artifact should {@link #await(long)} its prefetch, so that it is never fetched twice
+ * concurrently, and {@link #release()} it once analyzed, in the order of the sequence numbers.
+ * An artifact which cannot be resolved is reported by {@link #await(long)}, so that the analysis does not try to
+ * fetch it again. Any other error is only logged, and the rest of the artifacts are then resolved by the analysis.
+ */
+final class ArtifactPrefetcher implements AutoCloseable {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ArtifactDiscoveryService artifactDiscoveryService;
+
+    private final List<Artifact> artifacts;
+
+    private final int depth;
+
+    private final long maxBytes;
+
+    private final long[] artifactBytes;
+
+    private final ArtifactNotFoundException[] failures;
+
+    private final Thread prefetchThread;
+
+    // The artifacts before this sequence number are resolved
+    private int resolvedCount = 0;
+
+    // The artifacts before this sequence number are analyzed
+    private int releasedCount = 0;
+
+    private long aheadBytes = 0;
+
+    private boolean closed = false;
+
+    ArtifactPrefetcher(final ArtifactDiscoveryService artifactDiscoveryService,
+                       final List<Artifact> artifacts,
+                       final int depth,
+                       final long maxBytes) {
+        this.artifactDiscoveryService = artifactDiscoveryService;
+        this.artifacts = artifacts;
+        this.depth = depth;
+        this.maxBytes = maxBytes;
+        this.artifactBytes = new long[artifacts.size()];
+        this.failures = new ArtifactNotFoundException[artifacts.size()];
+        this.prefetchThread = new Thread(this::prefetchArtifacts, "jarviz-artifact-prefetch");
+        this.prefetchThread.setDaemon(true);
+        this.prefetchThread.start();
+    }
+
+    /**
+     * Waits until the artifact is resolved (or failed to be resolved).
+     *
+     * @param sequence The sequence number of the artifact.
+     * @throws InterruptedException      If interrupted while waiting.
+     * @throws ArtifactNotFoundException If the artifact cannot be resolved.
+     */
+    synchronized void await(final long sequence) throws InterruptedException, ArtifactNotFoundException {
+        while (sequence >= resolvedCount && !closed) {
+            wait();
+        }
+
+        if (sequence < failures.length && failures[(int) sequence] != null) {
+            throw failures[(int) sequence];
+        }
+    }
+
+    /**
+     * Releases the oldest artifact not yet released once it is analyzed, which allows the next artifacts
+     * to be resolved.
+     */
+    synchronized void release() {
+        if (releasedCount < resolvedCount) {
+            aheadBytes -= artifactBytes[releasedCount];
+            releasedCount++;
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        prefetchThread.interrupt();
+    }
+
+    private void prefetchArtifacts() {
+        try {
+            // The artifacts before this sequence number were passed to resolveArtifacts
+            int batchedCount = 0;
+            for (int sequence = 0; sequence < artifacts.size(); sequence++) {
+                final int end = awaitRoom(sequence);
+                if (end < 0) {
+                    return;
+                }
+
+                if (maxBytes == 0 && sequence >= batchedCount) {
+                    batchedCount = end;
+                    artifactDiscoveryService.resolveArtifacts(artifacts.subList(sequence, batchedCount));
+                }
+
+                final Artifact artifact = artifacts.get(sequence);
+                // Only the artifacts which are fetched take room on disk
+                final boolean available = maxBytes > 0 && artifactDiscoveryService.isArtifactAvailable(artifact);
+                long bytes = 0;
+                ArtifactNotFoundException failure = null;
+                try {
+                    final File file = artifactDiscoveryService.discoverArtifact(artifact);
+                    bytes = available ? 0 : file.length();
+                } catch (ArtifactNotFoundException e) {
+                    failure = e;
+                }
+
+                synchronized (this) {
+                    artifactBytes[sequence] = bytes;
+                    failures[sequence] = failure;
+                    aheadBytes += bytes;
+                    resolvedCount = sequence + 1;
+                    notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed
+        } catch (RuntimeException e) {
+            log.warn("Unable to prefetch the artifacts, the rest will be resolved by the analysis", e);
+        } finally {
+            synchronized (this) {
+                // Let the analysis resolve the rest of the artifacts
+                resolvedCount = artifacts.size();
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until there is room to resolve the given artifact ahead, within the depth and the disk budget.
+     *
+     * @param sequence The sequence number of the next artifact to be resolved.
+     * @return The end of the artifacts which can be resolved ahead (exclusive), or -1 if closed.
+     */
+    private synchronized int awaitRoom(final int sequence) throws InterruptedException {
+        while (!closed && (sequence - releasedCount >= depth || (maxBytes > 0 && aheadBytes >= maxBytes))) {
+            wait();
+        }
+
+        return closed ? -1 : Math.min(artifacts.size(), releasedCount + depth);
+    }
+}
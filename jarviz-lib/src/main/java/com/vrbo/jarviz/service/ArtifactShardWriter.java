@@ -0,0 +1,157 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vrbo.jarviz.model.CouplingRecord;
+
+/**
+ * Writes the records of each artifact into its own temporary shard file, on the thread which analyzed the artifact,
+ * and concatenates the shards in the order of the artifacts into the output file at the end with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, without copying the bytes
+ * through the heap. The shards are created in a temporary directory next to the output file, so that they are on
+ * the same file system. Only the formats which can be concatenated are supported, see {@link #isSupported(String, String)}.
+ */
+final class ArtifactShardWriter implements AutoCloseable {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Path outputFile;
+
+    private final String format;
+
+    private final Path shardDirectory;
+
+    ArtifactShardWriter(final String reportFile, final String format) {
+        this.outputFile = Paths.get(reportFile).toAbsolutePath();
+        this.format = format;
+        try {
+            this.shardDirectory = Files.createTempDirectory(outputFile.getParent(), ".jarviz-shards-");
+        } catch (IOException e) {
+            throw new IllegalArgumentException(String.format("Cannot write to file %s", reportFile), e);
+        }
+    }
+
+    /**
+     * The plain (not compressed) JSONL and CSV files can be concatenated, the CSV header is written once
+     * into the output file instead of the shards.
+     *
+     * @param format     The output format.
+     * @param reportFile The output path.
+     * @return Indicates if the output can be written from the shards.
+     */
+    static boolean isSupported(final String format, final String reportFile) {
+        return (CouplingSinks.JSONL.equals(format) || CouplingSinks.CSV.equals(format)) &&
+               !reportFile.endsWith(FileCouplingSink.GZIP_EXTENSION);
+    }
+
+    /**
+     * Writes the records of an artifact into a new shard. This can be called concurrently for multiple artifacts.
+     *
+     * @param sequence The sequence number of the artifact in the application set.
+     * @param records  The coupling records of the artifact.
+     * @return The shard file, or empty if there were no records.
+     */
+    Optional<Path> write(final long sequence, final Stream<CouplingRecord> records) {
+        final Path shard = shardDirectory.resolve(String.format("shard-%08d", sequence));
+        final FileCouplingSink sink = CouplingSinks.CSV.equals(format) ?
+                                      new CsvCouplingRecordWriter(shard.toString(), false) :
+                                      new CouplingRecordWriter(shard.toString());
+        try {
+            records.forEach(sink::write);
+        } finally {
+            sink.close();
+        }
+
+        return Files.exists(shard) ? Optional.of(shard) : Optional.empty();
+    }
+
+    /**
+     * Concatenates the shards into the output file, in the given order, deleting each shard once it is copied.
+     *
+     * @param shards The shard files.
+     * @return Indicates if the output file was created, i.e. there was at least one shard.
+     */
+    boolean concatenate(final List<Path> shards) {
+        if (shards.isEmpty()) {
+            return false;
+        }
+
+        try (FileChannel out = FileChannel.open(outputFile,
+                                                StandardOpenOption.CREATE,
+                                                StandardOpenOption.TRUNCATE_EXISTING,
+                                                StandardOpenOption.WRITE)) {
+            if (CouplingSinks.CSV.equals(format)) {
+                final ByteBuffer header = ByteBuffer.wrap(
+                    (CsvCouplingRecordWriter.HEADER + CsvCouplingRecordWriter.LINE_SEPARATOR).getBytes(StandardCharsets.UTF_8));
+                while (header.hasRemaining()) {
+                    out.write(header);
+                }
+            }
+
+            for (Path shard : shards) {
+                try (FileChannel in = FileChannel.open(shard, StandardOpenOption.READ)) {
+                    final long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+                // Deleted as soon as it is copied, so that the disk usage does not peak at twice the output size
+                Files.delete(shard);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Unable to generate CouplingRecord file: %s", outputFile), e);
+        }
+
+        return true;
+    }
+
+    /**
+     * Deletes the shards left (e.g. after a failure) and their directory.
+     */
+    @Override
+    public void close() {
+        try (Stream<Path> paths = Files.walk(shardDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Unable to delete the shard directory: {}", shardDirectory, e);
+        }
+    }
+}
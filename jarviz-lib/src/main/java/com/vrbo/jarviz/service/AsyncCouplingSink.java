@@ -0,0 +1,179 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vrbo.jarviz.model.CouplingRecord;
+
+/**
+ * A {@link CouplingSink} which passes the records to another sink on a dedicated writer thread, so that the
+ * analysis can continue while the records are being written. The records are handed over through a bounded
+ * queue, and {@link #write(CouplingRecord)} blocks when the queue is full (i.e. the writer falls behind).
+ * A failure in the writer thread is reported by the next {@link #write(CouplingRecord)} or by {@link #close()}.
+ * This should be used by a single producer thread.
+ */
+public class AsyncCouplingSink implements CouplingSink {
+
+    // Marks the end of the records, compared by reference
+    private static final CouplingRecord END_OF_RECORDS = new CouplingRecord.Builder()
+                                                             .appSetName("")
+                                                             .applicationName("")
+                                                             .artifactFileName("")
+                                                             .artifactId("")
+                                                             .artifactGroup("")
+                                                             .artifactVersion("")
+                                                             .sourceClass("")
+                                                             .sourceMethod("")
+                                                             .targetClass("")
+                                                             .targetMethod("")
+                                                             .build();
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final CouplingSink sink;
+
+    private final BlockingQueue<CouplingRecord> queue;
+
+    private final Thread writerThread;
+
+    private volatile Throwable failure = null;
+
+    private boolean closed = false;
+
+    /**
+     * @param sink          The sink which is called on the writer thread.
+     * @param queueCapacity The maximum number of records waiting to be written.
+     */
+    public AsyncCouplingSink(@Nonnull final CouplingSink sink, final int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity should be at least 1");
+        }
+
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writerThread = new Thread(this::writeRecords, "jarviz-record-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues the given coupling record to be passed to the sink.
+     * Blocks while the queue is full.
+     *
+     * @param couplingRecord The coupling record.
+     */
+    @Override
+    public void write(final CouplingRecord couplingRecord) {
+        if (closed) {
+            throw new IllegalStateException("The writer is already closed");
+        }
+        throwIfFailed();
+
+        put(couplingRecord);
+    }
+
+    /**
+     * Waits for all the queued records to be written, and closes the sink.
+     *
+     * @return The result of closing the sink.
+     */
+    @Override
+    public boolean close() {
+        if (closed) {
+            return false;
+        }
+        closed = true;
+
+        put(END_OF_RECORDS);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the records to be written", e);
+        }
+
+        try {
+            return sink.close();
+        } finally {
+            throwIfFailed();
+        }
+    }
+
+    private void put(final CouplingRecord couplingRecord) {
+        try {
+            queue.put(couplingRecord);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the record writer", e);
+        }
+    }
+
+    private void throwIfFailed() {
+        final Throwable e = failure;
+        if (e != null) {
+            throw new IllegalStateException("Unable to write the coupling records", e);
+        }
+    }
+
+    /**
+     * Runs on the writer thread until the end of the records. After a failure (including an Error such as
+     * an OutOfMemoryError, or an interrupt), the remaining records are discarded, but the queue is still drained,
+     * so that the producer is never blocked by a full queue.
+     */
+    private void writeRecords() {
+        final List<CouplingRecord> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                if (failure == null) {
+                    failure = new IllegalStateException("The record writer was interrupted", e);
+                }
+                continue;
+            }
+
+            queue.drainTo(batch);
+            for (CouplingRecord couplingRecord : batch) {
+                if (couplingRecord == END_OF_RECORDS) {
+                    return;
+                }
+                if (failure == null) {
+                    writeOnWriterThread(couplingRecord);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeOnWriterThread(final CouplingRecord couplingRecord) {
+        try {
+            sink.write(couplingRecord);
+        } catch (Throwable e) {
+            log.error("Unable to write the coupling record: {}", couplingRecord, e);
+            failure = e;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+import javax.annotation.Nonnull;
+
+import com.vrbo.jarviz.model.CouplingRecord;
+
+/**
+ * Reads the coupling records from the Jarviz binary format (.jbin), which is written by the
+ * {@link BinaryCouplingRecordWriter}.
+ * <p>
+ * The format starts with the magic bytes "JVZB" and a format version byte, followed by the records until
+ * the end of the file. Each record is the ten {@link CouplingRecord} fields, in the declaration order, and each field
+ * is an unsigned varint (7 bits per byte, least significant group first). The value zero introduces a new string,
+ * followed by its length in bytes as a varint and its UTF-8 bytes, which gets the next id of the per-file dictionary.
+ * Any other value is the dictionary id of a previous string plus one. Since the application, artifact and class names
+ * are repeated in most of the records, a record is usually encoded in around ten bytes.
+ * <p>
+ * This is not thread safe, should not be shared among multiple threads.
+ */
+public class BinaryCouplingRecordReader implements Closeable {
+
+    public static final String FILE_EXTENSION = ".jbin";
+
+    static final byte[] MAGIC = {'J', 'V', 'Z', 'B'};
+
+    static final int FORMAT_VERSION = 1;
+
+    static final int NEW_STRING = 0;
+
+    // Guards against allocating a huge array for the length read from a corrupt file
+    static final int MAX_STRING_BYTES = 16 * 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final InputStream in;
+
+    private final List<String> dictionary = new ArrayList<>();
+
+    /**
+     * @param in The input stream, which will be closed by this reader.
+     * @throws IOException If the header cannot be read or is not valid.
+     */
+    public BinaryCouplingRecordReader(@Nonnull final InputStream in) throws IOException {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, BUFFER_SIZE);
+
+        final byte[] magic = new byte[MAGIC.length];
+        readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a Jarviz binary coupling record file");
+        }
+
+        final int version = this.in.read();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(String.format("Unsupported Jarviz binary format version: %d", version));
+        }
+    }
+
+    /**
+     * Opens the given file, which is decompressed while reading if the file name ends with ".gz".
+     *
+     * @param filePath The file path.
+     * @return The reader.
+     * @throws IOException If the file cannot be opened or is not valid.
+     */
+    public static BinaryCouplingRecordReader open(@Nonnull final String filePath) throws IOException {
+        final InputStream fileIn = new FileInputStream(filePath);
+        try {
+            return new BinaryCouplingRecordReader(
+                filePath.endsWith(".gz") ? new GZIPInputStream(fileIn, BUFFER_SIZE) : fileIn);
+        } catch (IOException e) {
+            fileIn.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next coupling record.
+     *
+     * @return The coupling record, or empty at the end of the file.
+     * @throws IOException If the record cannot be read or the file is truncated.
+     */
+    public Optional<CouplingRecord> read() throws IOException {
+        final int first = in.read();
+        if (first < 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new CouplingRecord.Builder()
+                               .appSetName(readString(first))
+                               .applicationName(readString())
+                               .artifactFileName(readString())
+                               .artifactId(readString())
+                               .artifactGroup(readString())
+                               .artifactVersion(readString())
+                               .sourceClass(readString())
+                               .sourceMethod(readString())
+                               .targetClass(readString())
+                               .targetMethod(readString())
+                               .build());
+    }
+
+    /**
+     * Streams the remaining coupling records. Read errors are thrown as {@link UncheckedIOException}.
+     * Closing the stream closes this reader.
+     *
+     * @return The stream of the coupling records.
+     */
+    public Stream<CouplingRecord> stream() {
+        final Spliterator<CouplingRecord> spliterator =
+            new Spliterators.AbstractSpliterator<CouplingRecord>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+
+                @Override
+                public boolean tryAdvance(final Consumer<? super CouplingRecord> action) {
+                    try {
+                        final Optional<CouplingRecord> couplingRecord = read();
+                        couplingRecord.ifPresent(action);
+                        return couplingRecord.isPresent();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readString() throws IOException {
+        return readString(readByte());
+    }
+
+    private String readString(final int firstByte) throws IOException {
+        final int ref = readVarInt(firstByte);
+        if (ref != NEW_STRING) {
+            if (ref < 0 || ref > dictionary.size()) {
+                throw new IOException(String.format("Invalid string reference: %d", ref));
+            }
+            return dictionary.get(ref - 1);
+        }
+
+        final int length = readVarInt(readByte());
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException(String.format("Invalid string length: %d", length));
+        }
+
+        final byte[] bytes = new byte[length];
+        readFully(bytes);
+        final String value = new String(bytes, StandardCharsets.UTF_8);
+        dictionary.add(value);
+
+        return value;
+    }
+
+    private int readVarInt(final int firstByte) throws IOException {
+        int value = firstByte & 0x7f;
+        int b = firstByte;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            if (shift > 28) {
+                throw new IOException("Malformed varint");
+            }
+            b = readByte();
+            value |= (b & 0x7f) << shift;
+        }
+
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        final int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Unexpected end of the Jarviz binary file");
+        }
+
+        return b;
+    }
+
+    private void readFully(final byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            final int length = in.read(bytes, offset, bytes.length - offset);
+            if (length < 0) {
+                throw new EOFException("Unexpected end of the Jarviz binary file");
+            }
+            offset += length;
+        }
+    }
+}
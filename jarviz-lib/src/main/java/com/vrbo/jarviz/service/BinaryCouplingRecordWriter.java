@@ -0,0 +1,97 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import com.vrbo.jarviz.model.CouplingRecord;
+
+import static com.vrbo.jarviz.service.BinaryCouplingRecordReader.FORMAT_VERSION;
+import static com.vrbo.jarviz.service.BinaryCouplingRecordReader.MAGIC;
+import static com.vrbo.jarviz.service.BinaryCouplingRecordReader.MAX_STRING_BYTES;
+import static com.vrbo.jarviz.service.BinaryCouplingRecordReader.NEW_STRING;
+
+/**
+ * Writes the coupling records in the compact Jarviz binary format (.jbin), see {@link BinaryCouplingRecordReader}
+ * for the layout. Each distinct string is written once, the first time it is used, and is referenced by its
+ * dictionary id afterwards.
+ * This is not thread safe, should not be shared among multiple threads.
+ */
+public class BinaryCouplingRecordWriter extends FileCouplingSink {
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    private OutputStream out = null;
+
+    public BinaryCouplingRecordWriter(@Nonnull final String filePath) {
+        super(filePath);
+    }
+
+    @Override
+    protected void open(final OutputStream out) throws IOException {
+        this.out = out;
+
+        out.write(MAGIC);
+        out.write(FORMAT_VERSION);
+    }
+
+    @Override
+    protected void writeRecord(final CouplingRecord couplingRecord) throws IOException {
+        writeString(couplingRecord.getAppSetName());
+        writeString(couplingRecord.getApplicationName());
+        writeString(couplingRecord.getArtifactFileName());
+        writeString(couplingRecord.getArtifactId());
+        writeString(couplingRecord.getArtifactGroup());
+        writeString(couplingRecord.getArtifactVersion());
+        writeString(couplingRecord.getSourceClass());
+        writeString(couplingRecord.getSourceMethod());
+        writeString(couplingRecord.getTargetClass());
+        writeString(couplingRecord.getTargetMethod());
+    }
+
+    private void writeString(final String value) throws IOException {
+        final Integer id = dictionary.get(value);
+        if (id != null) {
+            writeVarInt(id + 1);
+            return;
+        }
+
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IOException(String.format("String of %d bytes is too long for the binary format", bytes.length));
+        }
+        dictionary.put(value, dictionary.size());
+        writeVarInt(NEW_STRING);
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarInt(final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7f) != 0) {
+            out.write((remaining & 0x7f) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+    }
+}
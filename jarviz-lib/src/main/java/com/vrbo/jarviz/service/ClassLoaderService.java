@@ -18,6 +18,7 @@ package com.vrbo.jarviz.service;
 
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
 
@@ -34,4 +35,22 @@ public interface ClassLoaderService {
 
     List<ShadowClass> getAllClasses(@Nonnull final Artifact artifact,
                                     @Nonnull final Predicate<String> classNameFilter);
+
+    default Stream<ShadowClass> streamAllClasses(@Nonnull final Artifact artifact) {
+        return streamAllClasses(artifact, NO_OP_CLASS_NAME_FILTER);
+    }
+
+    /**
+     * Same as {@link #getAllClasses(Artifact, Predicate)}, but the implementations can choose to read
+     * the bytes of each class lazily, only when the class is consumed from the stream.
+     * The returned stream holds resources and should be closed after use (e.g. with try-with-resources).
+     *
+     * @param artifact        The artifact to be scanned.
+     * @param classNameFilter A filter to conditionally select classes.
+     * @return A stream of the classes in the artifact, ordered by the class name.
+     */
+    default Stream<ShadowClass> streamAllClasses(@Nonnull final Artifact artifact,
+                                                 @Nonnull final Predicate<String> classNameFilter) {
+        return getAllClasses(artifact, classNameFilter).stream();
+    }
 }
@@ -16,22 +16,51 @@
 
 package com.vrbo.jarviz.service;
 
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nullable;
 
 import org.glassfish.hk2.api.ServiceLocator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.vrbo.jarviz.config.ClassParsingMode;
 import com.vrbo.jarviz.config.CouplingFilterConfig;
+import com.vrbo.jarviz.config.CouplingOrdering;
 import com.vrbo.jarviz.config.JarvizConfig;
+import com.vrbo.jarviz.config.OutputSharding;
 import com.vrbo.jarviz.model.Application;
 import com.vrbo.jarviz.model.ApplicationSet;
 import com.vrbo.jarviz.model.Artifact;
+import com.vrbo.jarviz.model.ClassFilterCache;
 import com.vrbo.jarviz.model.CouplingRecord;
 import com.vrbo.jarviz.model.MethodCoupling;
 import com.vrbo.jarviz.model.ShadowClass;
 import com.vrbo.jarviz.visitor.FilteredClassVisitor;
+import com.vrbo.jarviz.visitor.SymbolTable;
 
 import static com.vrbo.jarviz.util.FileReadWriteUtils.getOrCreateDirectory;
 
@@ -39,12 +68,10 @@ public class CouplingAnalyser {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private final AtomicInteger applicationSetClassCount = new AtomicInteger();
-
-    private final AtomicInteger applicationClassCount = new AtomicInteger();
-
     /**
-     * Start the analyser and return a list of {@link MethodCoupling}s.
+     * Start the analyser and write the {@link CouplingRecord}s into the report file. The output format is
+     * {@link JarvizConfig#getOutputFormat()}, or chosen by the file extension when it is not set.
+     * When {@link JarvizConfig#getOutputSharding()} is set, the report file only names the shards and their manifest.
      *
      * @param jarvizConfig   The configurations.
      * @param applicationSet The application set.
@@ -55,22 +82,120 @@ public class CouplingAnalyser {
                       final ApplicationSet applicationSet,
                       final CouplingFilterConfig filterConfig,
                       final String reportFile) {
-        final JarvizConfig config;
-        if (jarvizConfig != null) {
-            config = jarvizConfig;
+        final JarvizConfig config = resolveConfig(jarvizConfig);
+        final String outputFormat = config.getOutputFormat().orElseGet(() -> CouplingSinks.formatOf(reportFile));
+        if (config.getOutputSharding() != OutputSharding.NONE) {
+            final ShardedCouplingSink sink = new ShardedCouplingSink(reportFile,
+                                                                     outputFormat,
+                                                                     config.getOutputSharding(),
+                                                                     config.getOutputShardMegabytes() * 1024L * 1024L);
+            start(config, applicationSet, filterConfig, sink);
+            return;
+        }
+
+        if (config.getWriteArtifactShards() && ArtifactShardWriter.isSupported(outputFormat, reportFile)) {
+            startWithShards(config, applicationSet, filterConfig, reportFile, outputFormat);
         } else {
-            log.info("JarvizConfig is not found, using default config.");
-            config = new JarvizConfig.Builder().build();
+            if (config.getWriteArtifactShards()) {
+                log.warn("Artifact shards are not supported for the output format {} of {}, writing the records directly",
+                         outputFormat, reportFile);
+            }
+            start(config, applicationSet, filterConfig, CouplingSinks.create(outputFormat, reportFile));
+        }
+        log.info("Couplings were saved to {}", reportFile);
+    }
+
+    /**
+     * Start the analyser and pass the {@link CouplingRecord}s to the given sink, in the order of the applications
+     * and artifacts in the application set. The sink is closed at the end of the analysis, or after a failure.
+     *
+     * @param jarvizConfig   The configurations.
+     * @param applicationSet The application set.
+     * @param filterConfig   The filters.
+     * @param sink           The sink for the coupling records.
+     */
+    public void start(final JarvizConfig jarvizConfig,
+                      final ApplicationSet applicationSet,
+                      final CouplingFilterConfig filterConfig,
+                      final CouplingSink sink) {
+        final JarvizConfig config = resolveConfig(jarvizConfig);
+        final CouplingSink writer = config.getWriterQueueCapacity() > 0 ?
+                                    new AsyncCouplingSink(sink, config.getWriterQueueCapacity()) :
+                                    sink;
+        try (AnalysisRun run = new AnalysisRun(config, applicationSet, filterConfig, null)) {
+            while (run.hasNext()) {
+                writeArtifact(applicationSet, run.next(), run, writer);
+            }
+            writer.close();
+        } catch (RuntimeException e) {
+            closeAfterFailure(writer, e);
+            throw e;
         }
+    }
+
+    /**
+     * Returns a lazily evaluated stream of the {@link CouplingRecord}s, in the order of the applications and
+     * artifacts in the application set, without writing any output. The artifacts are only analyzed as the stream is
+     * consumed, and at most twice the number of artifact threads are analyzed ahead of the consumer, so a slow
+     * consumer holds back the analysis. The stream should be closed (e.g. with try-with-resources) to release
+     * the analysis threads if it is not fully consumed.
+     *
+     * @param jarvizConfig   The configurations.
+     * @param applicationSet The application set.
+     * @param filterConfig   The filters.
+     * @return The stream of the coupling records.
+     */
+    public Stream<CouplingRecord> stream(final JarvizConfig jarvizConfig,
+                                         final ApplicationSet applicationSet,
+                                         final CouplingFilterConfig filterConfig) {
+        final AnalysisRun run = new AnalysisRun(resolveConfig(jarvizConfig), applicationSet, filterConfig, null);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(run, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                            .flatMap(analysis -> analysis.couplings
+                                                     .stream()
+                                                     .map(c -> toCouplingRecord(applicationSet, analysis.app, analysis.artifact, c))
+                                                     .onClose(() -> run.complete(analysis)))
+                            .onClose(run::close);
+    }
 
-        init(config);
+    /**
+     * Each artifact is written into its own shard file by the thread which analyzed it, and the shards are
+     * concatenated in the order of the artifacts into the report file at the end.
+     */
+    private void startWithShards(final JarvizConfig config,
+                                 final ApplicationSet applicationSet,
+                                 final CouplingFilterConfig filterConfig,
+                                 final String reportFile,
+                                 final String outputFormat) {
+        try (ArtifactShardWriter shardWriter = new ArtifactShardWriter(reportFile, outputFormat);
+             AnalysisRun run = new AnalysisRun(config, applicationSet, filterConfig, shardWriter)) {
+            final List<Path> shards = new ArrayList<>();
+            while (run.hasNext()) {
+                final ArtifactAnalysis analysis = run.next();
+                if (analysis.shard != null) {
+                    shards.add(analysis.shard);
+                }
+                run.complete(analysis);
+            }
+            shardWriter.concatenate(shards);
+        }
+    }
 
-        final ServiceLocator serviceLocator = JarvizServiceLocator.createServiceLocator(config);
-        final ClassLoaderService classLoaderService = serviceLocator.getService(ClassLoaderService.class);
+    private JarvizConfig resolveConfig(final JarvizConfig jarvizConfig) {
+        if (jarvizConfig != null) {
+            return jarvizConfig;
+        }
 
-        log.info("ApplicationSet found:\n{}", applicationSetToString(applicationSet));
+        log.info("JarvizConfig is not found, using default config.");
+        return new JarvizConfig.Builder().build();
+    }
 
-        analyzeApplicationSet(applicationSet, filterConfig, classLoaderService, reportFile);
+    private static void closeAfterFailure(final CouplingSink writer, final RuntimeException failure) {
+        try {
+            writer.close();
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
     }
 
     private void init(final JarvizConfig jarvizConfig) {
@@ -83,101 +208,138 @@ public class CouplingAnalyser {
     }
 
     /**
-     * Returns the number of couplings found for the application set.
+     * Analyzes the artifact and returns the couplings found. This can be called concurrently for
+     * multiple artifacts, therefore it should not modify any shared state.
      *
-     * @param appSet             The application set.
-     * @param filterConfig       The filters.
-     * @param classLoaderService Class loader service.
-     * @param reportFile         File name for the report.
-     * @return Coupling count for the application set.
+     * When writing the artifact shards, the records are written into the shard of the artifact instead of being
+     * returned, and the heap budget is released right away.
+     *
+     * @param appSet   The application set.
+     * @param app      The application.
+     * @param artifact The artifact.
+     * @param sequence The sequence number of the artifact in the application set.
+     * @param context  The analysis context.
+     * @return The analysis of the artifact.
+     * @throws InterruptedException If interrupted while waiting for the heap budget.
      */
-    private int analyzeApplicationSet(final ApplicationSet appSet,
-                                      final CouplingFilterConfig filterConfig,
-                                      final ClassLoaderService classLoaderService,
-                                      final String reportFile) {
-        log.info("Analyzing applicationSet");
-        int appSetCouplingCount = 0;
-
-        final CouplingRecordWriter writer = new CouplingRecordWriter(reportFile);
-        for (Application application : appSet.getApplications()) {
-            appSetCouplingCount += analyzeApplication(appSet, application, filterConfig, classLoaderService, writer);
+    private ArtifactAnalysis analyzeArtifact(final ApplicationSet appSet,
+                                             final Application app,
+                                             final Artifact artifact,
+                                             final long sequence,
+                                             final AnalysisContext context) throws InterruptedException {
+        log.info("Analyzing artifact: {}", artifact.toFileName());
+        if (context.prefetcher != null) {
+            try {
+                context.prefetcher.await(sequence);
+            } catch (ArtifactNotFoundException e) {
+                log.error("Jar file does not exist: {}", artifact.toFileName(), e);
+                throw new IllegalArgumentException(String.format("Jar file does not exist: %s", artifact.toFileName()), e);
+            }
+        }
+        final long reservedBytes = context.heapBudget.reserve(sequence, estimateHeapBytes(artifact, context));
+
+        try {
+            final UsageCollector usageCollector;
+            final AtomicInteger classCount = new AtomicInteger();
+            final AtomicInteger skippedClassCount = new AtomicInteger();
+            try (Stream<ShadowClass> classes = context.classLoaderService.streamAllClasses(artifact)) {
+                usageCollector = visitClasses(classes, context, classCount, skippedClassCount);
+            }
+
+            final List<MethodCoupling> couplings = usageCollector.getMethodCouplings(context.couplingOrdering);
+            log.info("Artifact={}, ClassCount={}, SkippedClassCount={}, CouplingCount={}",
+                     artifact.toFileName(), classCount.get(), skippedClassCount.get(), couplings.size());
+
+            if (context.shardWriter != null) {
+                final Path shard = context.shardWriter
+                                       .write(sequence, couplings.stream().map(c -> toCouplingRecord(appSet, app, artifact, c)))
+                                       .orElse(null);
+                context.heapBudget.release(reservedBytes);
+                return new ArtifactAnalysis(app, artifact, classCount.get(), Collections.emptyList(), couplings.size(), shard, 0);
+            }
+
+            return new ArtifactAnalysis(app, artifact, classCount.get(), couplings, couplings.size(), null, reservedBytes);
+        } catch (RuntimeException e) {
+            context.heapBudget.release(reservedBytes);
+            throw e;
         }
-
-        log.info("ApplicationSet={}, TotalClassesAnalyzed={}, TotalCouplingsFound={}",
-                 appSet.getAppSetName(), applicationSetClassCount.get(), appSetCouplingCount);
-
-        writer.close();
-        log.info("Couplings were saved to {}", reportFile);
-
-        return appSetCouplingCount;
     }
 
     /**
-     * Returns the number of couplings found for the application.
+     * The heap needed to analyze an artifact is estimated by the size of the artifact file.
      *
-     * @param app                The application.
-     * @param filterConfig       The filters.
-     * @param classLoaderService Class loader service.
-     * @param writer             Coupling record writer.
-     * @return Coupling count for the application.
+     * @param artifact The artifact.
+     * @param context  The analysis context.
+     * @return The estimated heap in bytes.
      */
-    private int analyzeApplication(final ApplicationSet appSet,
-                                   final Application app,
-                                   final CouplingFilterConfig filterConfig,
-                                   final ClassLoaderService classLoaderService,
-                                   final CouplingRecordWriter writer) {
-        log.info("Analyzing application: {}", app.getAppName());
-        applicationClassCount.set(0);
-        int appCouplingCount = 0;
-
-        for (Artifact artifact : app.getArtifacts()) {
-            log.info("Analyzing artifact: {}", artifact.toFileName());
-
-            appCouplingCount += analyzeArtifact(appSet, app, artifact, filterConfig, classLoaderService, writer);
+    private long estimateHeapBytes(final Artifact artifact, final AnalysisContext context) {
+        if (!context.heapBudget.isLimited()) {
+            return 0;
         }
 
-        log.info("Application={}, TotalClassesAnalyzed={}, TotalCouplingsFound={}",
-                 app.getAppName(), applicationClassCount.get(), appCouplingCount);
+        try {
+            return context.artifactDiscoveryService.discoverArtifact(artifact).length();
+        } catch (ArtifactNotFoundException e) {
+            // The same error will be reported when the classes are loaded
+            return 0;
+        }
+    }
 
-        return appCouplingCount;
+    private static void writeArtifact(final ApplicationSet appSet,
+                                      final ArtifactAnalysis analysis,
+                                      final AnalysisRun run,
+                                      final CouplingSink writer) {
+        // Write the CouplingRecords
+        analysis.couplings
+            .stream()
+            .map(c -> toCouplingRecord(appSet, analysis.app, analysis.artifact, c))
+            .forEach(writer::write);
+
+        run.complete(analysis);
     }
 
     /**
-     * Returns the number of couplings found for the artifact.
+     * Visits all the classes and returns the collected couplings. Each class is parsed as soon as it is read,
+     * so its bytes can be released right after. In parallel mode, each worker collects into its own
+     * {@link UsageCollector} and the collectors are merged in the class order at the end.
      *
-     * @param app                The application.
-     * @param artifact           The artifact.
-     * @param filterConfig       The filters.
-     * @param classLoaderService Class loader service.
-     * @param writer             Coupling record writer.
-     * @return Coupling count for the artifact.
+     * @param classes           The classes to be visited.
+     * @param context           The analysis context.
+     * @param classCount        The counter for the visited classes.
+     * @param skippedClassCount The counter for the classes skipped without a full visit.
+     * @return The collector holding the couplings of all the classes.
      */
-    private int analyzeArtifact(final ApplicationSet appSet,
-                                final Application app,
-                                final Artifact artifact,
-                                final CouplingFilterConfig filterConfig,
-                                final ClassLoaderService classLoaderService,
-                                final CouplingRecordWriter writer) {
-
-        final List<ShadowClass> classesFromJarClassLoader = classLoaderService.getAllClasses(artifact);
-
-        applicationSetClassCount.addAndGet(classesFromJarClassLoader.size());
-        applicationClassCount.addAndGet(classesFromJarClassLoader.size());
-
-        final UsageCollector usageCollector = new UsageCollector(filterConfig);
-        for (ShadowClass c : classesFromJarClassLoader) {
-            new FilteredClassVisitor(c.getClassName(), usageCollector, c.getClassBytes()).visit();
+    private static UsageCollector visitClasses(final Stream<ShadowClass> classes,
+                                               final AnalysisContext context,
+                                               final AtomicInteger classCount,
+                                               final AtomicInteger skippedClassCount) {
+        final Supplier<UsageCollector> collectorFactory = () -> new UsageCollector(context.classFilterCache);
+        final BiConsumer<UsageCollector, ShadowClass> classVisitor = (collector, c) -> {
+            if (!new FilteredClassVisitor(c.getClassName(), collector, c.getClassBytes(),
+                                          context.parsingMode, context.symbolTable).visit()) {
+                skippedClassCount.incrementAndGet();
+            }
+            classCount.incrementAndGet();
+        };
+
+        if (context.classVisitorPool == null) {
+            return classes.collect(collectorFactory, classVisitor, UsageCollector::merge);
         }
 
-        final List<MethodCoupling> couplings = usageCollector.getMethodCouplings();
-        log.info("ClassCount={}, CouplingCount={}", classesFromJarClassLoader.size(), couplings.size());
-
-        // Write the CouplingRecord as Json
-        couplings.stream()
-                 .map(c -> toCouplingRecord(appSet, app, artifact, c))
-                 .forEach(writer::writeAsJson);
+        return awaitResult(context.classVisitorPool.submit(
+            () -> classes.parallel().collect(collectorFactory, classVisitor, UsageCollector::merge)));
+    }
 
-        return couplings.size();
+    private static <T> T awaitResult(final Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while analyzing", e);
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException("Unable to analyze", e.getCause());
+        }
     }
 
     private static CouplingRecord toCouplingRecord(final ApplicationSet appSet,
@@ -213,4 +375,313 @@ public class CouplingAnalyser {
 
         return buf.toString();
     }
+
+    /**
+     * Holds the services and settings shared by all the artifacts in a single run.
+     */
+    private static final class AnalysisContext {
+
+        private final ClassFilterCache classFilterCache;
+
+        private final ClassLoaderService classLoaderService;
+
+        private final ArtifactDiscoveryService artifactDiscoveryService;
+
+        private final ClassParsingMode parsingMode;
+
+        private final CouplingOrdering couplingOrdering;
+
+        private final SymbolTable symbolTable;
+
+        private final ForkJoinPool classVisitorPool;
+
+        private final HeapBudget heapBudget;
+
+        private final ArtifactPrefetcher prefetcher;
+
+        private final ArtifactShardWriter shardWriter;
+
+        private AnalysisContext(final ClassFilterCache classFilterCache,
+                                final ClassLoaderService classLoaderService,
+                                final ArtifactDiscoveryService artifactDiscoveryService,
+                                final ClassParsingMode parsingMode,
+                                final CouplingOrdering couplingOrdering,
+                                final SymbolTable symbolTable,
+                                @Nullable final ForkJoinPool classVisitorPool,
+                                final HeapBudget heapBudget,
+                                @Nullable final ArtifactPrefetcher prefetcher,
+                                @Nullable final ArtifactShardWriter shardWriter) {
+            this.classFilterCache = classFilterCache;
+            this.classLoaderService = classLoaderService;
+            this.artifactDiscoveryService = artifactDiscoveryService;
+            this.parsingMode = parsingMode;
+            this.couplingOrdering = couplingOrdering;
+            this.symbolTable = symbolTable;
+            this.classVisitorPool = classVisitorPool;
+            this.heapBudget = heapBudget;
+            this.prefetcher = prefetcher;
+            this.shardWriter = shardWriter;
+        }
+    }
+
+    /**
+     * The result of analyzing a single artifact, waiting to be consumed.
+     */
+    private static final class ArtifactAnalysis {
+
+        private final Application app;
+
+        private final Artifact artifact;
+
+        private final int classCount;
+
+        private final List<MethodCoupling> couplings;
+
+        private final int couplingCount;
+
+        private final Path shard;
+
+        private final long reservedBytes;
+
+        private ArtifactAnalysis(final Application app,
+                                 final Artifact artifact,
+                                 final int classCount,
+                                 final List<MethodCoupling> couplings,
+                                 final int couplingCount,
+                                 @Nullable final Path shard,
+                                 final long reservedBytes) {
+            this.app = app;
+            this.artifact = artifact;
+            this.classCount = classCount;
+            this.couplings = couplings;
+            this.couplingCount = couplingCount;
+            this.shard = shard;
+            this.reservedBytes = reservedBytes;
+        }
+    }
+
+    /**
+     * A single run of the analysis over an application set, which iterates the analyses of the artifacts in the order
+     * of the applications and artifacts. The artifacts are analyzed concurrently on the artifact executor, but in order
+     * to limit the memory held by the results waiting to be consumed, at most twice the number of artifact threads
+     * can be in flight. Each analysis returned should be passed to {@link #complete(ArtifactAnalysis)} once it is
+     * consumed. The run is closed automatically once all the artifacts are returned.
+     */
+    private final class AnalysisRun implements Iterator<ArtifactAnalysis>, AutoCloseable {
+
+        private final ApplicationSet appSet;
+
+        private final ServiceLocator serviceLocator;
+
+        private final ExecutorService artifactExecutor;
+
+        private final ForkJoinPool classVisitorPool;
+
+        private final ArtifactPrefetcher prefetcher;
+
+        private final AnalysisContext context;
+
+        private final List<Artifact> allArtifacts;
+
+        // The artifacts before this index are unpinned, once their analyses are consumed
+        private int unpinnedCount = 0;
+
+        private final int maxArtifactsInFlight;
+
+        private final Iterator<Application> applications;
+
+        private final Deque<Future<ArtifactAnalysis>> artifactsInFlight = new ArrayDeque<>();
+
+        private final AnalysisSummary summary = new AnalysisSummary();
+
+        private Application app = null;
+
+        private Iterator<Artifact> artifacts = Collections.emptyIterator();
+
+        private long sequence = 0;
+
+        private boolean closed = false;
+
+        private AnalysisRun(final JarvizConfig config,
+                            final ApplicationSet appSet,
+                            final CouplingFilterConfig filterConfig,
+                            @Nullable final ArtifactShardWriter shardWriter) {
+            init(config);
+
+            this.appSet = appSet;
+            this.serviceLocator = JarvizServiceLocator.createServiceLocator(config);
+            final ClassLoaderService classLoaderService = serviceLocator.getService(ClassLoaderService.class);
+            final ArtifactDiscoveryService artifactDiscoveryService = serviceLocator.getService(ArtifactDiscoveryService.class);
+
+            log.info("ApplicationSet found:\n{}", applicationSetToString(appSet));
+            final List<Artifact> allArtifacts = appSet.getApplications()
+                                                      .stream()
+                                                      .flatMap(a -> a.getArtifacts().stream())
+                                                      .collect(Collectors.toList());
+            // Pinned until analyzed, so that they are not evicted from the artifact cache in the meantime
+            this.allArtifacts = allArtifacts;
+            artifactDiscoveryService.pinArtifacts(allArtifacts);
+            if (config.getArtifactPrefetchDepth() > 0) {
+                this.prefetcher = new ArtifactPrefetcher(artifactDiscoveryService,
+                                                         allArtifacts,
+                                                         config.getArtifactPrefetchDepth(),
+                                                         config.getArtifactPrefetchDiskBudgetMegabytes() * 1024L * 1024L);
+            } else {
+                this.prefetcher = null;
+                artifactDiscoveryService.resolveArtifacts(allArtifacts);
+            }
+
+            this.artifactExecutor = config.getArtifactThreads() > 1 ?
+                                    Executors.newFixedThreadPool(config.getArtifactThreads()) :
+                                    MoreExecutors.newDirectExecutorService();
+            this.classVisitorPool =
+                config.getAnalysisThreads() > 1 ? new ForkJoinPool(config.getAnalysisThreads()) : null;
+            this.context =
+                new AnalysisContext(new ClassFilterCache(filterConfig, config.getFilterCacheMaxEntries()),
+                                    classLoaderService,
+                                    artifactDiscoveryService,
+                                    config.getClassParsingMode(),
+                                    config.getCouplingOrdering(),
+                                    new SymbolTable(),
+                                    classVisitorPool,
+                                    new HeapBudget(config.getAnalysisHeapBudgetMegabytes() * 1024L * 1024L),
+                                    prefetcher,
+                                    shardWriter);
+            this.maxArtifactsInFlight = config.getArtifactThreads() > 1 ? config.getArtifactThreads() * 2 : 1;
+            this.applications = appSet.getApplications().iterator();
+
+            log.info("Analyzing applicationSet");
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+
+            submitArtifacts();
+            if (artifactsInFlight.isEmpty()) {
+                logSummary();
+                close();
+                return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public ArtifactAnalysis next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return awaitResult(artifactsInFlight.remove());
+        }
+
+        /**
+         * Releases the heap budget and the artifact of the consumed analysis and adds it to the summary.
+         * The analyses are consumed in the order of the artifacts.
+         *
+         * @param analysis The analysis.
+         */
+        private void complete(final ArtifactAnalysis analysis) {
+            context.heapBudget.release(analysis.reservedBytes);
+            if (prefetcher != null) {
+                prefetcher.release();
+            }
+            if (unpinnedCount < allArtifacts.size()) {
+                final Artifact artifact = allArtifacts.get(unpinnedCount++);
+                context.artifactDiscoveryService.unpinArtifacts(Collections.singletonList(artifact));
+            }
+            summary.add(analysis);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            artifactExecutor.shutdownNow();
+            if (prefetcher != null) {
+                prefetcher.close();
+            }
+            context.artifactDiscoveryService.unpinArtifacts(allArtifacts.subList(unpinnedCount, allArtifacts.size()));
+            unpinnedCount = allArtifacts.size();
+            if (classVisitorPool != null) {
+                classVisitorPool.shutdown();
+            }
+            serviceLocator.shutdown();
+        }
+
+        private void submitArtifacts() {
+            while (artifactsInFlight.size() < maxArtifactsInFlight) {
+                while (!artifacts.hasNext()) {
+                    if (!applications.hasNext()) {
+                        return;
+                    }
+                    app = applications.next();
+                    artifacts = app.getArtifacts().iterator();
+                    log.info("Analyzing application: {}", app.getAppName());
+                }
+
+                final Application artifactApp = app;
+                final Artifact artifact = artifacts.next();
+                final long artifactSequence = sequence++;
+                artifactsInFlight.add(
+                    artifactExecutor.submit(() -> analyzeArtifact(appSet, artifactApp, artifact, artifactSequence, context)));
+            }
+        }
+
+        private void logSummary() {
+            summary.logApplication();
+
+            log.info("ApplicationSet={}, TotalClassesAnalyzed={}, TotalCouplingsFound={}",
+                     appSet.getAppSetName(), summary.appSetClassCount, summary.appSetCouplingCount);
+
+            final CacheStats filterCacheStats = context.classFilterCache.getStats();
+            log.info("FilterCacheHits={}, FilterCacheMisses={}, FilterCacheHitRate={}",
+                     filterCacheStats.hitCount(), filterCacheStats.missCount(), String.format("%.4f", filterCacheStats.hitRate()));
+        }
+    }
+
+    /**
+     * Aggregates the class and coupling counts of the consumed artifacts. Since the artifacts are
+     * consumed in order by a single thread, the counts of an application are complete as soon as
+     * an artifact of the next application is consumed.
+     */
+    private final class AnalysisSummary {
+
+        private Application app = null;
+
+        private int appClassCount = 0;
+
+        private int appCouplingCount = 0;
+
+        private int appSetClassCount = 0;
+
+        private int appSetCouplingCount = 0;
+
+        private void add(final ArtifactAnalysis analysis) {
+            if (!analysis.app.equals(app)) {
+                logApplication();
+                app = analysis.app;
+                appClassCount = 0;
+                appCouplingCount = 0;
+            }
+
+            appClassCount += analysis.classCount;
+            appCouplingCount += analysis.couplingCount;
+            appSetClassCount += analysis.classCount;
+            appSetCouplingCount += analysis.couplingCount;
+        }
+
+        private void logApplication() {
+            if (app != null) {
+                log.info("Application={}, TotalClassesAnalyzed={}, TotalCouplingsFound={}",
+                         app.getAppName(), appClassCount, appCouplingCount);
+            }
+        }
+    }
 }
@@ -0,0 +1,61 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+
+import com.vrbo.jarviz.model.CouplingRecord;
+
+/**
+ * Converts the coupling records between the output formats.
+ */
+public final class CouplingRecordConverter {
+
+    private CouplingRecordConverter() {}
+
+    /**
+     * Converts a Jarviz binary file (.jbin or .jbin.gz) to a newline-delimited JSON file (.jsonl or .jsonl.gz).
+     *
+     * @param binaryFilePath The path of the binary file.
+     * @param jsonlFilePath  The path of the JSON file.
+     * @return The number of the converted records.
+     * @throws IOException If the binary file cannot be read.
+     */
+    public static long binaryToJsonl(@Nonnull final String binaryFilePath,
+                                     @Nonnull final String jsonlFilePath) throws IOException {
+        if (jsonlFilePath.endsWith(BinaryCouplingRecordReader.FILE_EXTENSION)) {
+            throw new IllegalArgumentException(String.format("Not a JSON file: %s", jsonlFilePath));
+        }
+
+        long count = 0;
+        final CouplingRecordWriter writer = new CouplingRecordWriter(jsonlFilePath);
+        try (BinaryCouplingRecordReader reader = BinaryCouplingRecordReader.open(binaryFilePath)) {
+            Optional<CouplingRecord> couplingRecord;
+            while ((couplingRecord = reader.read()).isPresent()) {
+                writer.write(couplingRecord.get());
+                count++;
+            }
+        } finally {
+            writer.close();
+        }
+
+        return count;
+    }
+}
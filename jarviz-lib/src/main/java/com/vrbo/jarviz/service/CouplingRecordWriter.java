@@ -17,74 +17,105 @@
 package com.vrbo.jarviz.service;
 
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.Writer;
+import java.io.OutputStream;
 
 import javax.annotation.Nonnull;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.vrbo.jarviz.model.CouplingRecord;
 import com.vrbo.jarviz.util.JsonUtils;
 
 /**
  * Simple JSON blob writer for the {@link CouplingRecord}.
- * The resultant output will a newline-delimited JSON file (.jsonl).
+ * The resultant output will a newline-delimited JSON file (.jsonl), or a gzip compressed one (.jsonl.gz)
+ * when the file name ends with ".gz".
+ * The records are streamed through a single {@link JsonGenerator} into a large buffer,
+ * without creating an intermediate String for each record.
  * This is not thread safe, should not be shared among multiple threads.
  * See http://jsonlines.org
  */
-public class CouplingRecordWriter {
+public class CouplingRecordWriter extends FileCouplingSink {
 
-    private final String filePath;
+    private static final SerializedString APP_SET_NAME = new SerializedString("appSetName");
 
-    private Writer writer = null;
+    private static final SerializedString APPLICATION_NAME = new SerializedString("applicationName");
+
+    private static final SerializedString ARTIFACT_FILE_NAME = new SerializedString("artifactFileName");
+
+    private static final SerializedString ARTIFACT_ID = new SerializedString("artifactId");
+
+    private static final SerializedString ARTIFACT_GROUP = new SerializedString("artifactGroup");
+
+    private static final SerializedString ARTIFACT_VERSION = new SerializedString("artifactVersion");
+
+    private static final SerializedString SOURCE_CLASS = new SerializedString("sourceClass");
+
+    private static final SerializedString SOURCE_METHOD = new SerializedString("sourceMethod");
+
+    private static final SerializedString TARGET_CLASS = new SerializedString("targetClass");
+
+    private static final SerializedString TARGET_METHOD = new SerializedString("targetMethod");
+
+    private JsonGenerator generator = null;
 
     public CouplingRecordWriter(@Nonnull final String filePath) {
-        this.filePath = filePath;
+        super(filePath);
     }
 
     /**
      * Writes the given coupling record as a JSON blob into the file.
      *
      * @param couplingRecord The coupling record.
+     * @deprecated Use {@link #write(CouplingRecord)}.
      */
+    @Deprecated
     public void writeAsJson(final CouplingRecord couplingRecord) {
-        if (writer == null) {
-            openFileStream();
-        }
-
-        try {
-            writer.write(JsonUtils.toJsonString(couplingRecord));
-            writer.write('\n');
-        } catch (IOException e) {
-            throw new IllegalStateException(String.format("Unable to generate CouplingRecord file: %s", filePath), e);
-        }
-
+        write(couplingRecord);
     }
 
-    private void openFileStream() {
-        try {
-            writer = new PrintWriter(filePath, "UTF-8");
-        } catch (IOException e) {
-            throw new IllegalArgumentException(String.format("Cannot write to file %s", filePath), e);
-        }
+    @Override
+    protected void open(final OutputStream out) throws IOException {
+        generator = JsonUtils.OBJECT_MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        // Each record is terminated by a newline instead of the default root separator (a space)
+        generator.setRootValueSeparator(null);
     }
 
     /**
-     * Closes the underlying file stream and return a boolean to indicate if the operation was successful.
+     * Writes the given coupling record as a JSON blob.
+     * The output is the same as {@link com.vrbo.jarviz.util.JsonUtils#toJsonString(Object)},
+     * the fields are written in the same order and the empty fields are omitted.
      *
-     * @return Indicates if the close operation was successful.
+     * @param couplingRecord The coupling record.
+     * @throws IOException If the output cannot be written.
      */
-    public boolean close() {
-        if (writer == null) {
-            return false;
-        }
-
-        try {
-            writer.close();
-        } catch (IOException e) {
-            throw new IllegalArgumentException("Unable to properly close the file stream", e);
-        }
+    @Override
+    protected void writeRecord(final CouplingRecord couplingRecord) throws IOException {
+        generator.writeStartObject();
+        writeField(APP_SET_NAME, couplingRecord.getAppSetName());
+        writeField(APPLICATION_NAME, couplingRecord.getApplicationName());
+        writeField(ARTIFACT_FILE_NAME, couplingRecord.getArtifactFileName());
+        writeField(ARTIFACT_ID, couplingRecord.getArtifactId());
+        writeField(ARTIFACT_GROUP, couplingRecord.getArtifactGroup());
+        writeField(ARTIFACT_VERSION, couplingRecord.getArtifactVersion());
+        writeField(SOURCE_CLASS, couplingRecord.getSourceClass());
+        writeField(SOURCE_METHOD, couplingRecord.getSourceMethod());
+        writeField(TARGET_CLASS, couplingRecord.getTargetClass());
+        writeField(TARGET_METHOD, couplingRecord.getTargetMethod());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
 
-        return true;
+    @Override
+    protected void finish() throws IOException {
+        generator.flush();
     }
 
+    private void writeField(final SerializedString name, final String value) throws IOException {
+        if (!value.isEmpty()) {
+            generator.writeFieldName(name);
+            generator.writeString(value);
+        }
+    }
 }
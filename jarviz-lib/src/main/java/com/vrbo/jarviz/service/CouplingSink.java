@@ -0,0 +1,42 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import com.vrbo.jarviz.model.CouplingRecord;
+
+/**
+ * Receives the coupling records found by the {@link CouplingAnalyser}, in the order of the applications and
+ * artifacts in the application set. The built-in sinks write the records into a file (see {@link CouplingSinks}),
+ * while a custom sink can hand the records over to another pipeline in-process.
+ * A sink is only called from a single thread at a time, and it is closed by the analyser at the end.
+ */
+public interface CouplingSink {
+
+    /**
+     * Receives the given coupling record.
+     *
+     * @param couplingRecord The coupling record.
+     */
+    void write(CouplingRecord couplingRecord);
+
+    /**
+     * Completes the output and releases the resources held by the sink.
+     *
+     * @return Indicates if any output was produced, e.g. false when no file was created since there were no records.
+     */
+    boolean close();
+}
@@ -0,0 +1,42 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Service provider interface for the custom {@link CouplingSink}s. The providers are discovered from the classpath
+ * with {@link java.util.ServiceLoader}, i.e. listed in
+ * {@code META-INF/services/com.vrbo.jarviz.service.CouplingSinkProvider}, and selected by their name with the
+ * {@code outputFormat} flag in {@code config.json} or the {@code --format} argument.
+ * A provider can also be selected by its fully qualified class name, without the service file.
+ */
+public interface CouplingSinkProvider {
+
+    /**
+     * @return The name of the output format, which should be different from the built-in formats.
+     */
+    String getName();
+
+    /**
+     * Creates a new sink for an analysis.
+     *
+     * @param reportFile The output path given to the analyser, which can be ignored if the sink does not write a file.
+     * @return The sink.
+     */
+    CouplingSink createSink(@Nonnull String reportFile);
+}
@@ -0,0 +1,113 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Creates the {@link CouplingSink} for an output format. The built-in formats are {@value #JSONL}, {@value #CSV},
+ * {@value #BINARY} and {@value #GRAPH} (the aggregated graph data of jarviz-graph), and the custom formats are
+ * provided by the {@link CouplingSinkProvider}s on the classpath.
+ */
+public final class CouplingSinks {
+
+    public static final String JSONL = "jsonl";
+
+    public static final String CSV = "csv";
+
+    public static final String BINARY = "binary";
+
+    public static final String GRAPH = "graph";
+
+    private static final Map<String, Function<String, CouplingSink>> BUILT_IN_SINKS =
+        ImmutableMap.of(JSONL, CouplingRecordWriter::new,
+                        CSV, CsvCouplingRecordWriter::new,
+                        BINARY, BinaryCouplingRecordWriter::new,
+                        GRAPH, GraphDataWriter::new);
+
+    private CouplingSinks() {}
+
+    /**
+     * Creates a sink for the given output format.
+     *
+     * @param format     The name of a built-in format or a {@link CouplingSinkProvider}, or the class name of a
+     *                   {@link CouplingSinkProvider}. When null, the format is chosen by the file extension.
+     * @param reportFile The output path.
+     * @return The sink.
+     */
+    public static CouplingSink create(@Nullable final String format, @Nonnull final String reportFile) {
+        final String name = format != null ? format : formatOf(reportFile);
+
+        final Function<String, CouplingSink> builtInSink = BUILT_IN_SINKS.get(name);
+        if (builtInSink != null) {
+            return builtInSink.apply(reportFile);
+        }
+
+        return findProvider(name).createSink(reportFile);
+    }
+
+    /**
+     * Returns the built-in format for the file extension, ignoring the ".gz" extension: {@value #BINARY} for ".jbin",
+     * {@value #CSV} for ".csv", {@value #GRAPH} for ".graph.json" and otherwise {@value #JSONL}.
+     *
+     * @param reportFile The output path.
+     * @return The format name.
+     */
+    public static String formatOf(@Nonnull final String reportFile) {
+        final String fileName = reportFile.endsWith(FileCouplingSink.GZIP_EXTENSION) ?
+                                reportFile.substring(0, reportFile.length() - FileCouplingSink.GZIP_EXTENSION.length()) :
+                                reportFile;
+        if (fileName.endsWith(BinaryCouplingRecordReader.FILE_EXTENSION)) {
+            return BINARY;
+        } else if (fileName.endsWith(".csv")) {
+            return CSV;
+        } else if (fileName.endsWith(GraphDataWriter.FILE_EXTENSION)) {
+            return GRAPH;
+        }
+
+        return JSONL;
+    }
+
+    private static CouplingSinkProvider findProvider(final String name) {
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        for (CouplingSinkProvider provider : ServiceLoader.load(CouplingSinkProvider.class, classLoader)) {
+            if (name.equals(provider.getName())) {
+                return provider;
+            }
+        }
+
+        try {
+            final Class<?> providerClass = Class.forName(name, true, classLoader);
+            if (!CouplingSinkProvider.class.isAssignableFrom(providerClass)) {
+                throw new IllegalArgumentException(
+                    String.format("%s is not a %s", name, CouplingSinkProvider.class.getSimpleName()));
+            }
+            return (CouplingSinkProvider) providerClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException(String.format("Unknown output format: %s", name), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(String.format("Unable to create the output format: %s", name), e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+
+import com.vrbo.jarviz.model.CouplingRecord;
+
+/**
+ * Writes the coupling records into a CSV file (RFC 4180), with a header row of the {@link CouplingRecord} field names.
+ * The fields containing a comma, a double quote or a line break are enclosed in double quotes.
+ * This is not thread safe, should not be shared among multiple threads.
+ */
+public class CsvCouplingRecordWriter extends FileCouplingSink {
+
+    static final String HEADER = "appSetName,applicationName,artifactFileName,artifactId,artifactGroup," +
+                                 "artifactVersion,sourceClass,sourceMethod,targetClass,targetMethod";
+
+    static final String LINE_SEPARATOR = "\r\n";
+
+    private final boolean includeHeader;
+
+    private Writer writer = null;
+
+    public CsvCouplingRecordWriter(@Nonnull final String filePath) {
+        this(filePath, true);
+    }
+
+    CsvCouplingRecordWriter(@Nonnull final String filePath, final boolean includeHeader) {
+        super(filePath);
+        this.includeHeader = includeHeader;
+    }
+
+    @Override
+    protected void open(final OutputStream out) throws IOException {
+        writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        if (includeHeader) {
+            writer.write(HEADER);
+            writer.write(LINE_SEPARATOR);
+        }
+    }
+
+    @Override
+    protected void writeRecord(final CouplingRecord couplingRecord) throws IOException {
+        writeField(couplingRecord.getAppSetName());
+        writer.write(',');
+        writeField(couplingRecord.getApplicationName());
+        writer.write(',');
+        writeField(couplingRecord.getArtifactFileName());
+        writer.write(',');
+        writeField(couplingRecord.getArtifactId());
+        writer.write(',');
+        writeField(couplingRecord.getArtifactGroup());
+        writer.write(',');
+        writeField(couplingRecord.getArtifactVersion());
+        writer.write(',');
+        writeField(couplingRecord.getSourceClass());
+        writer.write(',');
+        writeField(couplingRecord.getSourceMethod());
+        writer.write(',');
+        writeField(couplingRecord.getTargetClass());
+        writer.write(',');
+        writeField(couplingRecord.getTargetMethod());
+        writer.write(LINE_SEPARATOR);
+    }
+
+    @Override
+    protected void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void writeField(final String value) throws IOException {
+        if (!needsQuotes(value)) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean needsQuotes(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.ConfigurationProperties;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.supplier.RepositorySystemSupplier;
+import org.glassfish.hk2.api.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vrbo.jarviz.config.JarvizConfig;
+import com.vrbo.jarviz.model.Artifact;
+
+import static com.vrbo.jarviz.util.FileReadWriteUtils.toFullPath;
+
+/**
+ * Resolves the artifacts missing from the artifact directory in-process with Maven Resolver, instead of running
+ * the mvn command. The artifacts are resolved from the local Maven repository, or downloaded into it from the remote
+ * repositories (which can also be file:// URLs), and then copied into the artifact directory.
+ * The artifacts resolved ahead by {@link #resolveArtifacts(Collection)} are downloaded in parallel.
+ * The repository system is shut down by {@link #preDestroy()}, when the service locator is shut down.
+ */
+public class EmbeddedArtifactDiscoveryService implements ArtifactDiscoveryService, PreDestroy {
+
+    private static final String MAVEN_CENTRAL_URL = "https://repo.maven.apache.org/maven2/";
+
+    // The number of parallel downloads of the basic repository connector
+    private static final String CONNECTOR_THREADS = "aether.connector.basic.threads";
+
+    private final Logger log = LoggerFactory.getLogger(EmbeddedArtifactDiscoveryService.class);
+
+    private final String localRepoPath;
+
+    private final boolean continueOnMavenError;
+
+    private final LocalRepositoryLookup localRepositoryLookup;
+
+    private final ArtifactCache artifactCache;
+
+    // The artifacts which could not be fetched, with continueOnMavenError, are not fetched again
+    private final Set<String> failedArtifacts = ConcurrentHashMap.newKeySet();
+
+    private final RepositorySystem repositorySystem;
+
+    private final RepositorySystemSession session;
+
+    private final List<RemoteRepository> remoteRepositories;
+
+    @Inject
+    public EmbeddedArtifactDiscoveryService(final JarvizConfig config) {
+        this.localRepoPath = config.getArtifactDirectory();
+        this.continueOnMavenError = config.getContinueOnMavenError();
+        this.localRepositoryLookup = new LocalRepositoryLookup(config.getLocalRepositories());
+        this.artifactCache = new ArtifactCache(localRepoPath, config.getArtifactCacheMaxMegabytes() * 1024 * 1024);
+        this.repositorySystem = new RepositorySystemSupplier().get();
+
+        final DefaultRepositorySystemSession repositorySession = MavenRepositorySystemUtils.newSession();
+        repositorySession.setLocalRepositoryManager(
+            repositorySystem.newLocalRepositoryManager(repositorySession, new LocalRepository(config.getMavenLocalRepository())));
+        repositorySession.setConfigProperty(CONNECTOR_THREADS, config.getMavenDownloadThreads());
+        repositorySession.setConfigProperty(ConfigurationProperties.REQUEST_TIMEOUT,
+                                            (int) TimeUnit.SECONDS.toMillis(config.getMavenTimeOutSeconds()));
+        this.session = repositorySession;
+
+        final List<String> urls = config.getMavenRemoteRepositories().isEmpty() ?
+                                  Collections.singletonList(MAVEN_CENTRAL_URL) :
+                                  config.getMavenRemoteRepositories();
+        this.remoteRepositories = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            remoteRepositories.add(new RemoteRepository.Builder("remote-" + i, "default", urls.get(i)).build());
+        }
+    }
+
+    /**
+     * Looks up the artifact in the artifact directory, then in the local Maven repositories, where it is read
+     * in place, and otherwise fetches it into the artifact directory, which may evict other artifacts from it.
+     *
+     * @param artifact The artifact.
+     * @return The artifact file, which does not exist if the artifact cannot be fetched and continueOnMavenError is set.
+     * @throws ArtifactNotFoundException If the artifact cannot be fetched.
+     */
+    @Override
+    public File discoverArtifact(final Artifact artifact) throws ArtifactNotFoundException {
+        final File file = new File(toFullPath(localRepoPath, artifact.toFileName()));
+        if (file.exists()) {
+            artifactCache.recordAccess(Collections.singletonList(artifact));
+            return file;
+        }
+
+        final Optional<File> repositoryFile = localRepositoryLookup.find(artifact);
+        if (repositoryFile.isPresent()) {
+            return repositoryFile.get();
+        }
+        if (failedArtifacts.contains(artifact.toFileName())) {
+            return file;
+        }
+
+        try {
+            final ArtifactResult result = repositorySystem.resolveArtifact(session, toArtifactRequest(artifact));
+            copyArtifact(result.getArtifact().getFile(), file);
+            artifactCache.recordAccess(Collections.singletonList(artifact));
+        } catch (ArtifactResolutionException e) {
+            log.error("Unable to resolve the artifact {}: {}", artifact.toMavenId(), e.getMessage());
+            if (!continueOnMavenError) {
+                throw new ArtifactNotFoundException(
+                    String.format("Unable to fetch the artifact %s from Maven repository", artifact.toMavenId()), e);
+            }
+            failedArtifacts.add(artifact.toFileName());
+        } catch (IOException e) {
+            throw new ArtifactNotFoundException(e);
+        }
+
+        return file;
+    }
+
+    /**
+     * Resolves all the missing artifacts with a single request, which downloads them in parallel.
+     * The artifacts which cannot be resolved are only logged, they are reported by {@link #discoverArtifact(Artifact)}.
+     *
+     * @param artifacts The artifacts to be discovered.
+     */
+    @Override
+    public void resolveArtifacts(final Collection<Artifact> artifacts) {
+        final Map<File, Artifact> missingArtifacts = new LinkedHashMap<>();
+        for (Artifact artifact : artifacts) {
+            if (!isArtifactAvailable(artifact)) {
+                missingArtifacts.putIfAbsent(new File(toFullPath(localRepoPath, artifact.toFileName())), artifact);
+            }
+        }
+
+        if (missingArtifacts.isEmpty()) {
+            return;
+        }
+
+        final List<ArtifactRequest> requests = new ArrayList<>(missingArtifacts.size());
+        missingArtifacts.values().forEach(a -> requests.add(toArtifactRequest(a)));
+
+        log.info("Maven: resolving {} artifacts", requests.size());
+        List<ArtifactResult> results;
+        try {
+            results = repositorySystem.resolveArtifacts(session, requests);
+        } catch (ArtifactResolutionException e) {
+            results = e.getResults();
+        }
+
+        int i = 0;
+        for (Map.Entry<File, Artifact> entry : missingArtifacts.entrySet()) {
+            final ArtifactResult result = results.get(i++);
+            if (result.isResolved()) {
+                try {
+                    copyArtifact(result.getArtifact().getFile(), entry.getKey());
+                } catch (IOException e) {
+                    log.warn("Unable to copy the artifact {}", entry.getValue().toMavenId(), e);
+                }
+            } else {
+                log.warn("Unable to resolve the artifact {}, it will be resolved again when it is analyzed",
+                         entry.getValue().toMavenId());
+            }
+        }
+
+        artifactCache.recordAccess(missingArtifacts.values());
+    }
+
+    @Override
+    public boolean isArtifactAvailable(final Artifact artifact) {
+        return new File(toFullPath(localRepoPath, artifact.toFileName())).exists() ||
+               localRepositoryLookup.find(artifact).isPresent();
+    }
+
+    @Override
+    public void pinArtifacts(final Collection<Artifact> artifacts) {
+        artifactCache.pin(artifacts);
+    }
+
+    @Override
+    public void unpinArtifacts(final Collection<Artifact> artifacts) {
+        artifactCache.unpin(artifacts);
+    }
+
+    /**
+     * Shuts down the repository system, and its download threads.
+     */
+    @Override
+    public void preDestroy() {
+        repositorySystem.shutdown();
+    }
+
+    private ArtifactRequest toArtifactRequest(final Artifact artifact) {
+        return new ArtifactRequest(new DefaultArtifact(artifact.getGroupId(),
+                                                       artifact.getArtifactId(),
+                                                       artifact.getClassifier().orElse(""),
+                                                       artifact.getPackaging(),
+                                                       artifact.getBaseVersion().orElseGet(artifact::getVersion)),
+                                   remoteRepositories,
+                                   null);
+    }
+
+    /**
+     * Copies the artifact through a temporary file, so that a partially copied file is never discovered.
+     */
+    private static void copyArtifact(final File source, final File target) throws IOException {
+        final Path directory = target.toPath().toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path tempFile = Files.createTempFile(directory, ".jarviz-", ".tmp");
+        try {
+            Files.copy(source.toPath(), tempFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tempFile, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
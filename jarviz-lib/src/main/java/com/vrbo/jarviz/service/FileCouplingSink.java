@@ -0,0 +1,160 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import javax.annotation.Nonnull;
+
+import com.google.common.io.CountingOutputStream;
+import com.vrbo.jarviz.model.CouplingRecord;
+import com.vrbo.jarviz.util.ParallelGzipOutputStream;
+
+/**
+ * Base class for the sinks which write the coupling records into a file. The file is only created when the first
+ * record is written, through a 1 MB buffer, and it is gzip compressed in parallel on all the available processors
+ * when the file name ends with ".gz".
+ * This is not thread safe, should not be shared among multiple threads.
+ */
+public abstract class FileCouplingSink implements CouplingSink {
+
+    public static final String GZIP_EXTENSION = ".gz";
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final String filePath;
+
+    private CountingOutputStream out = null;
+
+    protected FileCouplingSink(@Nonnull final String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Called once, when the file is opened before the first record.
+     *
+     * @param out The buffered output stream of the file, which is closed by this class.
+     * @throws IOException If the output cannot be written.
+     */
+    protected abstract void open(OutputStream out) throws IOException;
+
+    /**
+     * Writes the given coupling record into the output stream given to {@link #open(OutputStream)}.
+     *
+     * @param couplingRecord The coupling record.
+     * @throws IOException If the output cannot be written.
+     */
+    protected abstract void writeRecord(CouplingRecord couplingRecord) throws IOException;
+
+    /**
+     * Called before the output stream is closed, to flush any data buffered by the subclass.
+     *
+     * @throws IOException If the output cannot be written.
+     */
+    protected void finish() throws IOException {}
+
+    /**
+     * Returns the number of bytes written so far, before compression. The bytes buffered by the subclass
+     * (e.g. by a JSON generator or a character writer) are not included until they are flushed.
+     *
+     * @return The byte count.
+     */
+    public long getByteCount() {
+        return out != null ? out.getCount() : 0;
+    }
+
+    @Override
+    public void write(final CouplingRecord couplingRecord) {
+        if (out == null) {
+            openFileStream();
+        }
+
+        try {
+            writeRecord(couplingRecord);
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Unable to generate CouplingRecord file: %s", filePath), e);
+        }
+    }
+
+    /**
+     * Closes the underlying file stream and return a boolean to indicate if the operation was successful.
+     *
+     * @return Indicates if the close operation was successful.
+     */
+    @Override
+    public boolean close() {
+        if (out == null) {
+            return false;
+        }
+
+        try {
+            finish();
+            out.close();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to properly close the file stream", e);
+        }
+
+        return true;
+    }
+
+    private void openFileStream() {
+        try {
+            final OutputStream fileOut = Channels.newOutputStream(
+                FileChannel.open(Paths.get(filePath),
+                                 StandardOpenOption.CREATE,
+                                 StandardOpenOption.TRUNCATE_EXISTING,
+                                 StandardOpenOption.WRITE));
+            final CountingOutputStream countingOut;
+            try {
+                countingOut = new CountingOutputStream(new BufferedOutputStream(
+                    filePath.endsWith(GZIP_EXTENSION) ?
+                    new ParallelGzipOutputStream(fileOut, Runtime.getRuntime().availableProcessors()) :
+                    fileOut,
+                    BUFFER_SIZE));
+            } catch (IOException | RuntimeException e) {
+                closeOnFailure(fileOut, e);
+                throw e;
+            }
+
+            try {
+                open(countingOut);
+            } catch (IOException | RuntimeException e) {
+                // Also stops the compression threads
+                closeOnFailure(countingOut, e);
+                throw e;
+            }
+            out = countingOut;
+        } catch (IOException | InvalidPathException e) {
+            throw new IllegalArgumentException(String.format("Cannot write to file %s", filePath), e);
+        }
+    }
+
+    private static void closeOnFailure(final OutputStream stream, final Exception failure) {
+        try {
+            stream.close();
+        } catch (IOException | RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.vrbo.jarviz.model.CouplingRecord;
+import com.vrbo.jarviz.util.JsonUtils;
+
+/**
+ * Writes the graph data rendered by the Jarviz graph tool (jarviz-graph), aggregated from the coupling records
+ * during the analysis, instead of the records themselves. The graph data holds the nodes and the deduplicated links
+ * (weighted by the number of couplings) for the two groupings of the graph tool, "sourceClass" and
+ * "sourceClass-targetClass", the same as the graph tool would build from a .jsonl file, and the application names
+ * in the order of appearance, for the graph tool to assign their colors. The output file name should end with ".graph.json" (or
+ * ".graph.json.gz") to be recognized by the graph tool.
+ * The graph is held in memory until the writer is closed, with every distinct string stored once.
+ * This is not thread safe, should not be shared among multiple threads.
+ */
+public class GraphDataWriter extends FileCouplingSink {
+
+    public static final String FILE_EXTENSION = ".graph.json";
+
+    private static final String TARGET_NODE_COLOR = "#2E8484";
+
+    private final Map<String, String> strings = new HashMap<>();
+
+    private final Set<String> applicationNames = new LinkedHashSet<>();
+
+    private final Grouping sourceClassGrouping = new Grouping("sourceClass", false);
+
+    private final Grouping targetClassGrouping = new Grouping("sourceClass-targetClass", true);
+
+    private long recordCount = 0;
+
+    private OutputStream out = null;
+
+    public GraphDataWriter(@Nonnull final String filePath) {
+        super(filePath);
+    }
+
+    @Override
+    protected void open(final OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    protected void writeRecord(final CouplingRecord couplingRecord) {
+        applicationNames.add(canonicalize(couplingRecord.getApplicationName()));
+        sourceClassGrouping.add(couplingRecord);
+        targetClassGrouping.add(couplingRecord);
+        recordCount++;
+    }
+
+    @Override
+    protected void finish() throws IOException {
+        final JsonGenerator generator = JsonUtils.OBJECT_MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        generator.writeStartObject();
+        generator.writeNumberField("recordCount", recordCount);
+        generator.writeArrayFieldStart("applicationNames");
+        for (String applicationName : applicationNames) {
+            generator.writeString(applicationName);
+        }
+        generator.writeEndArray();
+        generator.writeObjectFieldStart("data");
+        sourceClassGrouping.write(generator);
+        targetClassGrouping.write(generator);
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.close();
+    }
+
+    /**
+     * Escapes the special HTML characters, the same as the graph tool.
+     *
+     * @param unsafe The string.
+     * @return The escaped string.
+     */
+    static String escapeHtml(final String unsafe) {
+        return unsafe.replace("&", "&amp;")
+                     .replace("<", "&lt;")
+                     .replace(">", "&gt;")
+                     .replace("\"", "&quot;")
+                     .replace("'", "&#039;");
+    }
+
+    private String canonicalize(final String value) {
+        final String existing = strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * The nodes and links of a single grouping of the graph.
+     */
+    private final class Grouping {
+
+        private final String name;
+
+        private final boolean byTargetClass;
+
+        private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+        private final Map<String, Link> links = new LinkedHashMap<>();
+
+        private Grouping(final String name, final boolean byTargetClass) {
+            this.name = name;
+            this.byTargetClass = byTargetClass;
+        }
+
+        private void add(final CouplingRecord r) {
+            final String sourceClass = escapeHtml(r.getSourceClass());
+            final String targetClass = escapeHtml(r.getTargetClass());
+            final String sourceMethodFullName = canonicalize(sourceClass + '#' + escapeHtml(r.getSourceMethod()));
+            final String targetMethodFullName = canonicalize(targetClass + '#' + escapeHtml(r.getTargetMethod()));
+
+            final String artifactNodeId = r.getArtifactGroup() + '_' + r.getArtifactId();
+            final String sourceNodeId = canonicalize(byTargetClass ? targetClass + '_' + artifactNodeId : artifactNodeId);
+            final String targetNodeId = canonicalize(byTargetClass ?
+                                                     targetClass + '_' + escapeHtml(r.getTargetMethod()) :
+                                                     r.getApplicationName() + '_' + targetClass + '_' + escapeHtml(r.getTargetMethod()));
+
+            nodes.computeIfAbsent(sourceNodeId, id -> new Node(id,
+                                                               false,
+                                                               canonicalize(r.getApplicationName()),
+                                                               canonicalize(r.getArtifactGroup() + '.' + r.getArtifactId()),
+                                                               ""))
+                 .add(sourceMethodFullName, targetNodeId);
+            nodes.computeIfAbsent(targetNodeId, id -> new Node(id, true, null, null, canonicalize(targetClass)))
+                 .add(targetMethodFullName, sourceNodeId);
+
+            links.computeIfAbsent(sourceNodeId + '\n' + targetNodeId, key -> new Link(sourceNodeId, targetNodeId)).weight++;
+        }
+
+        private void write(final JsonGenerator generator) throws IOException {
+            generator.writeObjectFieldStart(name);
+
+            generator.writeArrayFieldStart("nodes");
+            for (Node node : nodes.values()) {
+                node.write(generator);
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("links");
+            for (Link link : links.values()) {
+                generator.writeStartObject();
+                generator.writeStringField("source", link.source);
+                generator.writeStringField("target", link.target);
+                generator.writeNumberField("weight", link.weight);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * A source (artifact) or a target (method) node, with the coupling methods and their usage counts,
+     * and the coupling methods by the linked nodes.
+     */
+    private static final class Node {
+
+        private final String id;
+
+        private final boolean target;
+
+        private final String applicationName;
+
+        private final String artifact;
+
+        private final String couplingClass;
+
+        private final Map<String, int[]> couplingMethodCounts = new LinkedHashMap<>();
+
+        private final Map<String, Set<String>> couplingLinkMap = new LinkedHashMap<>();
+
+        private Node(final String id,
+                     final boolean target,
+                     final String applicationName,
+                     final String artifact,
+                     final String couplingClass) {
+            this.id = id;
+            this.target = target;
+            this.applicationName = applicationName;
+            this.artifact = artifact;
+            this.couplingClass = couplingClass;
+        }
+
+        private void add(final String couplingMethod, final String linkedNodeId) {
+            couplingMethodCounts.computeIfAbsent(couplingMethod, m -> new int[1])[0]++;
+            couplingLinkMap.computeIfAbsent(linkedNodeId, n -> new LinkedHashSet<>()).add(couplingMethod);
+        }
+
+        private void write(final JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", id);
+            generator.writeStringField("name", id);
+            generator.writeBooleanField("target", target);
+            if (!target) {
+                generator.writeStringField("applicationName", applicationName);
+                generator.writeStringField("artifact", artifact);
+            }
+            generator.writeStringField("couplingClass", couplingClass);
+
+            generator.writeArrayFieldStart("couplingMethodUsages");
+            for (String usage : toUsageCounts()) {
+                generator.writeString(usage);
+            }
+            generator.writeEndArray();
+
+            generator.writeObjectFieldStart("couplingLinkMap");
+            for (Map.Entry<String, Set<String>> entry : couplingLinkMap.entrySet()) {
+                generator.writeArrayFieldStart(entry.getKey());
+                for (String couplingMethod : entry.getValue()) {
+                    generator.writeString(couplingMethod);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+
+            generator.writeNumberField("val", target ? 0.4 : 1.7);
+            if (target) {
+                generator.writeStringField("color", TARGET_NODE_COLOR);
+            }
+            generator.writeEndObject();
+        }
+
+        /**
+         * The coupling methods sorted by their usage counts (descending, otherwise in the order of appearance),
+         * with the count appended when greater than 1, the same as convertToUsageCount() of the graph tool.
+         */
+        private List<String> toUsageCounts() {
+            final List<Map.Entry<String, int[]>> entries = new ArrayList<>(couplingMethodCounts.entrySet());
+            entries.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+
+            final List<String> usages = new ArrayList<>(entries.size());
+            for (Map.Entry<String, int[]> entry : entries) {
+                final int count = entry.getValue()[0];
+                usages.add(count > 1 ? String.format("%s (x%d)", entry.getKey(), count) : entry.getKey());
+            }
+
+            return usages;
+        }
+    }
+
+    /**
+     * A deduplicated link between two nodes, weighted by the number of couplings.
+     */
+    private static final class Link {
+
+        private final String source;
+
+        private final String target;
+
+        private int weight = 0;
+
+        private Link(final String source, final String target) {
+            this.source = source;
+            this.target = target;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+/**
+ * Limits the estimated heap held by the artifacts which are being analyzed or waiting to be written.
+ * Reservations are granted strictly in the order of their sequence numbers, therefore an artifact
+ * can only wait for the artifacts before it, which are always written (and released) first.
+ * A budget of zero is unlimited and grants every reservation immediately.
+ */
+final class HeapBudget {
+
+    private final long maxBytes;
+
+    private long availableBytes;
+
+    private long nextSequence = 0;
+
+    HeapBudget(final long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.availableBytes = maxBytes;
+    }
+
+    boolean isLimited() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * Reserves the given number of bytes, waiting for the previous sequence numbers to reserve first
+     * and for enough bytes to become available. Reservations larger than the budget are capped to the budget.
+     * Every sequence number should be reserved exactly once (even with zero bytes), starting from zero.
+     *
+     * @param sequence The sequence number of the reservation.
+     * @param bytes    The number of bytes.
+     * @return The number of bytes reserved, which should be released later.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    synchronized long reserve(final long sequence, final long bytes) throws InterruptedException {
+        if (!isLimited()) {
+            return 0;
+        }
+
+        final long reservedBytes = Math.max(0, Math.min(bytes, maxBytes));
+        while (sequence != nextSequence || availableBytes < reservedBytes) {
+            wait();
+        }
+
+        availableBytes -= reservedBytes;
+        nextSequence++;
+        notifyAll();
+
+        return reservedBytes;
+    }
+
+    synchronized void release(final long bytes) {
+        if (bytes > 0) {
+            availableBytes += bytes;
+            notifyAll();
+        }
+    }
+}
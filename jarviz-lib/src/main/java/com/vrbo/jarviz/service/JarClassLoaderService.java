@@ -25,7 +25,8 @@ import java.util.List;
 import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
-import javax.inject.Inject;
+
+import jakarta.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
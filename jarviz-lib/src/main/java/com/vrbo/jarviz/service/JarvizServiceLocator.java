@@ -18,11 +18,14 @@ package com.vrbo.jarviz.service;
 
 import javax.annotation.Nonnull;
 
+import jakarta.inject.Singleton;
+
 import org.glassfish.hk2.api.ServiceLocator;
 import org.glassfish.hk2.api.ServiceLocatorFactory;
 import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
 
+import com.vrbo.jarviz.config.ArtifactResolution;
 import com.vrbo.jarviz.config.JarvizConfig;
 
 public class JarvizServiceLocator {
@@ -39,9 +42,16 @@ public class JarvizServiceLocator {
             protected void configure() {
                 // configs
                 bind(jarvizConfig).to(JarvizConfig.class);
-                bind(MavenArtifactDiscoveryService.class).to(ArtifactDiscoveryService.class);
-
-                bind(JarClassLoaderService.class).to(ClassLoaderService.class);
+                // A single discovery service per locator, so the analyser and the class loader service share
+                // the artifact cache and the artifacts which could not be fetched
+                if (jarvizConfig.getArtifactResolution() == ArtifactResolution.EMBEDDED) {
+                    // The repository system is shut down with the locator
+                    bind(EmbeddedArtifactDiscoveryService.class).to(ArtifactDiscoveryService.class).in(Singleton.class);
+                } else {
+                    bind(MavenArtifactDiscoveryService.class).to(ArtifactDiscoveryService.class).in(Singleton.class);
+                }
+
+                bind(ArchiveClassLoaderService.class).to(ClassLoaderService.class);
             }
         });
 
@@ -0,0 +1,63 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import com.vrbo.jarviz.model.Artifact;
+
+/**
+ * Looks up the artifacts in the local Maven repositories (e.g. ~/.m2/repository), with the standard
+ * groupId/artifactId/version layout, so that they can be read in place instead of being fetched.
+ * The artifacts with the LATEST or RELEASE versions are never looked up, as their versions are not known.
+ */
+final class LocalRepositoryLookup {
+
+    private final List<File> repositories;
+
+    LocalRepositoryLookup(final List<String> repositoryPaths) {
+        this.repositories = repositoryPaths.stream().map(File::new).collect(Collectors.toList());
+    }
+
+    /**
+     * @param artifact The artifact.
+     * @return The artifact file in the first repository which has it, if any.
+     */
+    Optional<File> find(final Artifact artifact) {
+        if (artifact.isVersionLatestOrRelease()) {
+            return Optional.empty();
+        }
+
+        // Snapshots are stored in the directory of their base version, e.g. 1.0.1-SNAPSHOT
+        final String path = String.format("%s/%s/%s/%s",
+                                          artifact.getGroupId().replace('.', '/'),
+                                          artifact.getArtifactId(),
+                                          artifact.getBaseVersion().orElseGet(artifact::getVersion),
+                                          artifact.toFileName());
+        for (File repository : repositories) {
+            final File file = new File(repository, path);
+            if (file.isFile()) {
+                return Optional.of(file);
+            }
+        }
+
+        return Optional.empty();
+    }
+}
@@ -21,15 +21,30 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import javax.inject.Inject;
+import jakarta.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.escape.Escaper;
+import com.google.common.xml.XmlEscapers;
 import com.vrbo.jarviz.config.JarvizConfig;
 import com.vrbo.jarviz.model.Artifact;
 
@@ -37,31 +52,114 @@ import static com.vrbo.jarviz.util.FileReadWriteUtils.toFullPath;
 
 public class MavenArtifactDiscoveryService implements ArtifactDiscoveryService {
 
+    // The dependency:copy goal of the batch POM, which copies the artifactItems under their destFileName
+    private static final String MAVEN_DEPENDENCY_PLUGIN_VERSION = "3.1.1";
+
     private final Logger log = LoggerFactory.getLogger(MavenArtifactDiscoveryService.class);
 
     private final String localRepoPath;
 
     private final boolean continueOnMavenError;
 
+    private final LocalRepositoryLookup localRepositoryLookup;
+
+    private final ArtifactCache artifactCache;
+
+    // The artifacts which could not be fetched, with continueOnMavenError, are not fetched again
+    private final Set<String> failedArtifacts = ConcurrentHashMap.newKeySet();
+
     private final long mavenTimeOutSeconds;
 
+    private final int mavenBatchSize;
+
     @Inject
     public MavenArtifactDiscoveryService(final JarvizConfig config) {
         this.localRepoPath = config.getArtifactDirectory();
         this.continueOnMavenError = config.getContinueOnMavenError();
+        this.localRepositoryLookup = new LocalRepositoryLookup(config.getLocalRepositories());
+        this.artifactCache = new ArtifactCache(localRepoPath, config.getArtifactCacheMaxMegabytes() * 1024 * 1024);
         this.mavenTimeOutSeconds = config.getMavenTimeOutSeconds();
+        this.mavenBatchSize = config.getMavenBatchSize();
+    }
+
+    /**
+     * Fetches the missing artifacts in batches of up to mavenBatchSize artifacts, each batch with a single
+     * Maven invocation, instead of paying the Maven startup for every artifact. A batch which fails or times out
+     * is only logged, the artifacts still missing are fetched one by one by {@link #discoverArtifact(Artifact)},
+     * which reports their errors as before.
+     *
+     * @param artifacts The artifacts to be discovered.
+     */
+    @Override
+    public void resolveArtifacts(final Collection<Artifact> artifacts) {
+        if (mavenBatchSize == 0) {
+            return;
+        }
+
+        final Map<String, Artifact> missingArtifacts = new LinkedHashMap<>();
+        for (Artifact artifact : artifacts) {
+            if (!isArtifactAvailable(artifact)) {
+                missingArtifacts.putIfAbsent(artifact.toFileName(), artifact);
+            }
+        }
+
+        if (missingArtifacts.size() > 1) {
+            for (List<Artifact> batch : Iterables.partition(missingArtifacts.values(), mavenBatchSize)) {
+                runMavenBatchCopy(batch);
+                artifactCache.recordAccess(batch);
+            }
+        }
     }
 
+    /**
+     * Looks up the artifact in the artifact directory, then in the local Maven repositories, where it is read
+     * in place, and otherwise fetches it into the artifact directory, which may evict other artifacts from it.
+     *
+     * @param artifact The artifact.
+     * @return The artifact file, which does not exist if the artifact cannot be fetched and continueOnMavenError is set.
+     * @throws ArtifactNotFoundException If the artifact cannot be fetched.
+     */
     @Override
     public File discoverArtifact(final Artifact artifact) throws ArtifactNotFoundException {
         final File file = new File(toFullPath(localRepoPath, artifact.toFileName()));
-        if (!file.exists()) {
-            runMavenCopy(artifact);
+        if (file.exists()) {
+            artifactCache.recordAccess(Collections.singletonList(artifact));
+            return file;
+        }
+
+        final Optional<File> repositoryFile = localRepositoryLookup.find(artifact);
+        if (repositoryFile.isPresent()) {
+            return repositoryFile.get();
+        }
+        if (failedArtifacts.contains(artifact.toFileName())) {
+            return file;
         }
 
+        runMavenCopy(artifact);
+        if (file.exists()) {
+            artifactCache.recordAccess(Collections.singletonList(artifact));
+        } else {
+            failedArtifacts.add(artifact.toFileName());
+        }
         return file;
     }
 
+    @Override
+    public boolean isArtifactAvailable(final Artifact artifact) {
+        return new File(toFullPath(localRepoPath, artifact.toFileName())).exists() ||
+               localRepositoryLookup.find(artifact).isPresent();
+    }
+
+    @Override
+    public void pinArtifacts(final Collection<Artifact> artifacts) {
+        artifactCache.pin(artifacts);
+    }
+
+    @Override
+    public void unpinArtifacts(final Collection<Artifact> artifacts) {
+        artifactCache.unpin(artifacts);
+    }
+
     private Process runMavenCopy(final Artifact artifact) throws ArtifactNotFoundException {
         try {
             final String artifactMavenId = artifact.toMavenId();
@@ -98,6 +196,110 @@ public class MavenArtifactDiscoveryService implements ArtifactDiscoveryService {
         }
     }
 
+    private void runMavenBatchCopy(final List<Artifact> artifacts) {
+        Path batchDirectory = null;
+        try {
+            batchDirectory = Files.createTempDirectory("jarviz-maven-");
+            final Path pomFile = batchDirectory.resolve("pom.xml");
+            final Path logFile = batchDirectory.resolve("maven.log");
+            Files.write(pomFile, toBatchPom(artifacts, localRepoPath).getBytes(StandardCharsets.UTF_8));
+
+            final long timeOutSeconds = mavenTimeOutSeconds * artifacts.size();
+            log.info("Maven: fetching {} artifacts", artifacts.size());
+
+            // The output is redirected into a file, a large output cannot block the process on a full pipe
+            final Process process = new ProcessBuilder("mvn", "-B", "-f", pomFile.toString(), "dependency:copy")
+                                        .redirectErrorStream(true)
+                                        .redirectOutput(logFile.toFile())
+                                        .start();
+
+            if (process.waitFor(timeOutSeconds, TimeUnit.SECONDS)) {
+                if (process.exitValue() == 0) {
+                    Files.readAllLines(logFile).forEach(s -> log.info("{}", s));
+                } else {
+                    Files.readAllLines(logFile).forEach(s -> log.warn("{}", s));
+                    log.warn("Maven batch failed, the missing artifacts will be fetched one by one: {}",
+                             artifacts.stream().map(Artifact::toMavenId).collect(Collectors.joining(", ")));
+                }
+            } else {
+                process.destroyForcibly();
+                log.warn("Maven batch failed to execute in {} seconds, the missing artifacts will be fetched one by one",
+                         timeOutSeconds);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while fetching the artifacts", e);
+        } catch (IOException e) {
+            log.warn("Unable to run the Maven batch, the artifacts will be fetched one by one", e);
+        } finally {
+            deleteBatchDirectory(batchDirectory);
+        }
+    }
+
+    /**
+     * Creates the POM which configures the artifacts to be copied by the dependency:copy goal. The artifacts are copied
+     * with the same file names as {@link Artifact#toFileName()}, the same as by a single artifact copy.
+     *
+     * @param artifacts       The artifacts to be copied.
+     * @param outputDirectory The directory where the artifacts are copied.
+     * @return The POM.
+     */
+    static String toBatchPom(final List<Artifact> artifacts, final String outputDirectory) {
+        final Escaper escaper = XmlEscapers.xmlContentEscaper();
+        final StringBuilder pom = new StringBuilder();
+        pom.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n")
+           .append("  <modelVersion>4.0.0</modelVersion>\n")
+           .append("  <groupId>com.vrbo.jarviz</groupId>\n")
+           .append("  <artifactId>jarviz-maven-batch</artifactId>\n")
+           .append("  <version>1</version>\n")
+           .append("  <packaging>pom</packaging>\n")
+           .append("  <build>\n")
+           .append("    <plugins>\n")
+           .append("      <plugin>\n")
+           .append("        <groupId>org.apache.maven.plugins</groupId>\n")
+           .append("        <artifactId>maven-dependency-plugin</artifactId>\n")
+           .append("        <version>").append(MAVEN_DEPENDENCY_PLUGIN_VERSION).append("</version>\n")
+           .append("        <configuration>\n")
+           .append("          <outputDirectory>").append(escaper.escape(new File(outputDirectory).getAbsolutePath())).append("</outputDirectory>\n")
+           .append("          <artifactItems>\n");
+        for (Artifact artifact : artifacts) {
+            pom.append("            <artifactItem>\n")
+               .append("              <groupId>").append(escaper.escape(artifact.getGroupId())).append("</groupId>\n")
+               .append("              <artifactId>").append(escaper.escape(artifact.getArtifactId())).append("</artifactId>\n")
+               .append("              <version>")
+               .append(escaper.escape(artifact.getBaseVersion().orElseGet(artifact::getVersion)))
+               .append("</version>\n")
+               .append("              <type>").append(escaper.escape(artifact.getPackaging())).append("</type>\n");
+            artifact.getClassifier()
+                    .ifPresent(c -> pom.append("              <classifier>").append(escaper.escape(c)).append("</classifier>\n"));
+            pom.append("              <destFileName>").append(escaper.escape(artifact.toFileName())).append("</destFileName>\n")
+               .append("            </artifactItem>\n");
+        }
+        pom.append("          </artifactItems>\n")
+           .append("        </configuration>\n")
+           .append("      </plugin>\n")
+           .append("    </plugins>\n")
+           .append("  </build>\n")
+           .append("</project>\n");
+
+        return pom.toString();
+    }
+
+    private void deleteBatchDirectory(final Path batchDirectory) {
+        if (batchDirectory == null) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(batchDirectory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(batchDirectory);
+        } catch (IOException e) {
+            log.warn("Unable to delete {}", batchDirectory, e);
+        }
+    }
+
     private static List<String> drainInputStream(final InputStream stream) throws IOException {
         final BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
         final ImmutableList.Builder<String> logLines = ImmutableList.builder();
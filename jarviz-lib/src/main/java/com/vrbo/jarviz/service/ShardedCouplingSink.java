@@ -0,0 +1,185 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vrbo.jarviz.config.OutputSharding;
+import com.vrbo.jarviz.model.CouplingRecord;
+import com.vrbo.jarviz.model.OutputManifest;
+import com.vrbo.jarviz.model.OutputShard;
+import com.vrbo.jarviz.util.JsonUtils;
+
+/**
+ * Splits the coupling records into multiple output files (shards), by application or by size, so that the output
+ * can be consumed in parallel. The shards are named after the report file with a sequence number
+ * (e.g. "jarviz_result-00000.jsonl", or "jarviz_result-00000-MyApp.jsonl" when sharded by application),
+ * and they are listed with their record counts and sizes in a manifest file (e.g. "jarviz_result.manifest.json").
+ * Only the built-in file formats are supported, and the graph format (which is only written when it is closed)
+ * cannot be sharded by size. A shard sharded by size is complete once the bytes flushed by its writer reach the
+ * limit, so it can exceed the limit by the last record plus the bytes still buffered by the writer (up to 8 KB).
+ * This is not thread safe, should not be shared among multiple threads.
+ */
+public class ShardedCouplingSink implements CouplingSink {
+
+    public static final String MANIFEST_EXTENSION = ".manifest.json";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final File directory;
+
+    private final String baseName;
+
+    private final String extension;
+
+    private final String format;
+
+    private final OutputSharding sharding;
+
+    private final long maxShardBytes;
+
+    private final List<OutputShard> shards = new ArrayList<>();
+
+    private FileCouplingSink shardSink = null;
+
+    private String shardName = null;
+
+    private String shardApplicationName = null;
+
+    private long shardRecordCount = 0;
+
+    /**
+     * @param reportFile    The output path, which names the shards and the manifest.
+     * @param format        The built-in output format.
+     * @param sharding      How the output is split.
+     * @param maxShardBytes The size limit of a shard (before compression) when sharded by size.
+     */
+    public ShardedCouplingSink(@Nonnull final String reportFile,
+                               @Nonnull final String format,
+                               @Nonnull final OutputSharding sharding,
+                               final long maxShardBytes) {
+        if (sharding == OutputSharding.NONE) {
+            throw new IllegalArgumentException("sharding should not be NONE");
+        }
+        if (sharding == OutputSharding.SIZE && CouplingSinks.GRAPH.equals(format)) {
+            throw new IllegalArgumentException("Output sharding by size is not supported for the graph format");
+        }
+
+        final File file = new File(reportFile).getAbsoluteFile();
+        final String fileName = file.getName();
+        final int extensionIndex = fileName.indexOf('.', 1);
+
+        this.directory = file.getParentFile();
+        this.baseName = extensionIndex > 0 ? fileName.substring(0, extensionIndex) : fileName;
+        this.extension = extensionIndex > 0 ? fileName.substring(extensionIndex) : "";
+        this.format = format;
+        this.sharding = sharding;
+        this.maxShardBytes = maxShardBytes;
+    }
+
+    @Override
+    public void write(final CouplingRecord couplingRecord) {
+        if (shardSink == null || isShardComplete(couplingRecord)) {
+            closeShard();
+            openShard(couplingRecord);
+        }
+
+        shardSink.write(couplingRecord);
+        shardRecordCount++;
+    }
+
+    /**
+     * Closes the last shard and writes the manifest.
+     *
+     * @return Indicates if any shard was written.
+     */
+    @Override
+    public boolean close() {
+        closeShard();
+
+        final File manifestFile = getManifestFile();
+        final OutputManifest manifest = new OutputManifest.Builder().format(format).addAllShards(shards).build();
+        try {
+            Files.write(manifestFile.toPath(), JsonUtils.toJsonString(manifest).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Unable to write the manifest file: %s", manifestFile), e);
+        }
+        log.info("Couplings were saved to {} shards, listed in {}", shards.size(), manifestFile);
+
+        return !shards.isEmpty();
+    }
+
+    /**
+     * @return The manifest file, which is written when the sink is closed.
+     */
+    public File getManifestFile() {
+        return new File(directory, baseName + MANIFEST_EXTENSION);
+    }
+
+    private boolean isShardComplete(final CouplingRecord couplingRecord) {
+        if (sharding == OutputSharding.APPLICATION) {
+            return !couplingRecord.getApplicationName().equals(shardApplicationName);
+        }
+
+        return shardSink.getByteCount() >= maxShardBytes;
+    }
+
+    private void openShard(final CouplingRecord couplingRecord) {
+        if (sharding == OutputSharding.APPLICATION) {
+            shardApplicationName = couplingRecord.getApplicationName();
+            shardName = String.format("%s-%05d-%s%s", baseName, shards.size(),
+                                      shardApplicationName.replaceAll("[^A-Za-z0-9._-]", "_"), extension);
+        } else {
+            shardName = String.format("%s-%05d%s", baseName, shards.size(), extension);
+        }
+
+        final CouplingSink sink = CouplingSinks.create(format, new File(directory, shardName).getPath());
+        if (!(sink instanceof FileCouplingSink)) {
+            throw new IllegalArgumentException(String.format("Output sharding is not supported for the format: %s", format));
+        }
+
+        shardSink = (FileCouplingSink) sink;
+        shardRecordCount = 0;
+    }
+
+    private void closeShard() {
+        if (shardSink == null) {
+            return;
+        }
+
+        shardSink.close();
+        final OutputShard.Builder shard = new OutputShard.Builder()
+                                              .fileName(shardName)
+                                              .recordCount(shardRecordCount)
+                                              .byteCount(new File(directory, shardName).length());
+        if (sharding == OutputSharding.APPLICATION) {
+            shard.applicationName(shardApplicationName);
+        }
+        shards.add(shard.build());
+        shardSink = null;
+    }
+}
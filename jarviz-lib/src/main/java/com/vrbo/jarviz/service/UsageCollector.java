@@ -16,28 +16,48 @@
 
 package com.vrbo.jarviz.service;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.LinkedHashMultimap;
-import com.google.common.collect.Multimap;
 import com.vrbo.jarviz.config.CouplingFilterConfig;
+import com.vrbo.jarviz.config.CouplingOrdering;
+import com.vrbo.jarviz.model.ClassFilterCache;
 import com.vrbo.jarviz.model.Collector;
-import com.vrbo.jarviz.model.CouplingFilterUtils;
 import com.vrbo.jarviz.model.Method;
 import com.vrbo.jarviz.model.MethodCoupling;
+import com.vrbo.jarviz.util.LongHashSet;
 
+/**
+ * Collects the method couplings that pass the filters. Each distinct {@link Method} is assigned an int id,
+ * and a coupling is stored as the pair of its source and target ids in a single primitive long,
+ * so that a collected coupling takes a few bytes instead of the entries of a {@code Multimap<Method, Method>}.
+ * The source classes are ranked in the order they are collected, to group the couplings by class without sorting.
+ */
 public class UsageCollector implements Collector {
 
     // This default filter will allow all the method couplings without filtering out anything.
     private static CouplingFilterConfig DEFAULT_COUPLING_FILTER = new CouplingFilterConfig.Builder().build();
 
-    private final Multimap<Method, Method> methodRefMap;
+    private static final long DEFAULT_FILTER_CACHE_MAX_ENTRIES = 100_000;
 
-    private final CouplingFilterConfig couplingFilterConfig;
+    private final Map<Method, Integer> methodIds;
+
+    private final List<Method> methods;
+
+    private final LongHashSet couplingIds;
+
+    private final Map<String, Integer> sourceClassRanks;
+
+    // The rank of the source class by method id, or -1 if the method is not a source
+    private int[] methodSourceClassRanks;
+
+    private final ClassFilterCache classFilterCache;
 
     public UsageCollector() {
         this(DEFAULT_COUPLING_FILTER);
@@ -47,37 +67,207 @@ public class UsageCollector implements Collector {
      * @param couplingFilterConfig A filter to conditionally select the source and target methods couplings.
      */
     public UsageCollector(final CouplingFilterConfig couplingFilterConfig) {
-        Objects.requireNonNull(couplingFilterConfig, "couplingFilterConfig should not be null");
+        this(new ClassFilterCache(Objects.requireNonNull(couplingFilterConfig, "couplingFilterConfig should not be null"),
+                                  DEFAULT_FILTER_CACHE_MAX_ENTRIES));
+    }
 
-        this.couplingFilterConfig = couplingFilterConfig;
-        this.methodRefMap = LinkedHashMultimap.create();
+    /**
+     * @param classFilterCache The filters with the cached class decisions, which can be shared by multiple collectors.
+     */
+    public UsageCollector(final ClassFilterCache classFilterCache) {
+        Objects.requireNonNull(classFilterCache, "classFilterCache should not be null");
+
+        this.classFilterCache = classFilterCache;
+        this.methodIds = new HashMap<>();
+        this.methods = new ArrayList<>();
+        this.couplingIds = new LongHashSet();
+        this.sourceClassRanks = new LinkedHashMap<>();
+        this.methodSourceClassRanks = new int[16];
     }
 
     @Override
     public void collectMethodCoupling(final MethodCoupling coupling) {
-        if (CouplingFilterUtils.filterMethodCoupling(couplingFilterConfig, coupling)) {
-            methodRefMap.put(coupling.getSource(), coupling.getTarget());
+        collectMethodCoupling(coupling.getSource(), coupling.getTarget());
+    }
+
+    @Override
+    public void collectMethodCoupling(final Method source, final Method target) {
+        if (classFilterCache.filterMethodCoupling(source, target)) {
+            couplingIds.add(toCouplingId(getSourceMethodId(source), getMethodId(target)));
+        }
+    }
+
+    @Override
+    public boolean acceptsTargetClass(final String className) {
+        return classFilterCache.filterTargetClass(className);
+    }
+
+    /**
+     * Adds all the couplings collected by the other collector into this collector.
+     * The other collector should be using the same filters, as the couplings are not filtered again.
+     *
+     * @param other The other collector.
+     */
+    public void merge(final UsageCollector other) {
+        // Keep the order of the source classes of the other collector after the ones of this collector
+        other.sourceClassRanks.keySet().forEach(this::getSourceClassRank);
+
+        final int[] otherToThisIds = new int[other.methods.size()];
+        for (int i = 0; i < otherToThisIds.length; i++) {
+            otherToThisIds[i] = other.methodSourceClassRanks[i] >= 0 ?
+                                getSourceMethodId(other.methods.get(i)) :
+                                getMethodId(other.methods.get(i));
         }
+
+        other.couplingIds.forEach(
+            id -> couplingIds.add(toCouplingId(otherToThisIds[sourceId(id)], otherToThisIds[targetId(id)])));
     }
 
     /**
      * Generates the efferent coupling graph for each method in the classes loaded by the class loader.
+     * The couplings are sorted by {@link MethodCoupling#COMPARATOR}.
      *
      * @return The list of method couplings.
      */
     public List<MethodCoupling> getMethodCouplings() {
-        return ImmutableList.copyOf(
-            methodRefMap.entries().stream()
-                        .map(UsageCollector::mapToMethodCoupling)
-                        .sorted(MethodCoupling.COMPARATOR)
-                        .collect(Collectors.toList())
-        );
-    }
-
-    private static MethodCoupling mapToMethodCoupling(final Entry<Method, Method> entry) {
-        return new MethodCoupling.Builder()
-                   .source(entry.getKey())
-                   .target(entry.getValue())
-                   .build();
+        return getMethodCouplings(CouplingOrdering.SORTED);
+    }
+
+    /**
+     * Generates the efferent coupling graph for each method in the classes loaded by the class loader,
+     * in the given order. For {@link CouplingOrdering#SORTED}, instead of comparing the couplings, the methods
+     * are sorted once, and the couplings are sorted by the ranks of their methods. For {@link CouplingOrdering#CLASS},
+     * the couplings are grouped by the ranks of their source classes with a counting sort.
+     * The returned list creates each {@link MethodCoupling} as it is read, instead of holding all of them.
+     *
+     * @param ordering The order of the couplings.
+     * @return The list of method couplings.
+     */
+    public List<MethodCoupling> getMethodCouplings(final CouplingOrdering ordering) {
+        final long[] couplings = couplingIds.toArray();
+        switch (ordering) {
+            case UNORDERED:
+                return new MethodCouplingList(methods.toArray(new Method[0]), couplings);
+            case CLASS:
+                return new MethodCouplingList(methods.toArray(new Method[0]), groupBySourceClass(couplings));
+            case SORTED:
+                return sortCouplings(couplings);
+            default:
+                throw new IllegalArgumentException(String.format("Unknown coupling ordering: %s", ordering));
+        }
+    }
+
+    private List<MethodCoupling> sortCouplings(final long[] couplings) {
+        final Method[] sortedMethods = methods.toArray(new Method[0]);
+        Arrays.sort(sortedMethods, Method.COMPARATOR);
+        final int[] methodRanks = new int[sortedMethods.length];
+        for (int rank = 0; rank < methodRanks.length; rank++) {
+            methodRanks[methodIds.get(sortedMethods[rank])] = rank;
+        }
+
+        for (int i = 0; i < couplings.length; i++) {
+            final long id = couplings[i];
+            couplings[i] = toCouplingId(methodRanks[sourceId(id)], methodRanks[targetId(id)]);
+        }
+        Arrays.sort(couplings);
+
+        return new MethodCouplingList(sortedMethods, couplings);
+    }
+
+    private long[] groupBySourceClass(final long[] couplings) {
+        final int[] offsets = new int[sourceClassRanks.size() + 1];
+        for (long id : couplings) {
+            offsets[methodSourceClassRanks[sourceId(id)] + 1]++;
+        }
+        for (int rank = 1; rank < offsets.length; rank++) {
+            offsets[rank] += offsets[rank - 1];
+        }
+
+        final long[] grouped = new long[couplings.length];
+        for (long id : couplings) {
+            grouped[offsets[methodSourceClassRanks[sourceId(id)]]++] = id;
+        }
+
+        return grouped;
+    }
+
+    private int getMethodId(final Method method) {
+        final Integer id = methodIds.get(method);
+        if (id != null) {
+            return id;
+        }
+
+        final int newId = methods.size();
+        methodIds.put(method, newId);
+        methods.add(method);
+        if (newId == methodSourceClassRanks.length) {
+            methodSourceClassRanks = Arrays.copyOf(methodSourceClassRanks, newId * 2);
+        }
+        methodSourceClassRanks[newId] = -1;
+        return newId;
+    }
+
+    private int getSourceMethodId(final Method method) {
+        final int id = getMethodId(method);
+        if (methodSourceClassRanks[id] < 0) {
+            methodSourceClassRanks[id] = getSourceClassRank(method.getClassName());
+        }
+
+        return id;
+    }
+
+    private int getSourceClassRank(final String className) {
+        final Integer rank = sourceClassRanks.get(className);
+        if (rank != null) {
+            return rank;
+        }
+
+        final int newRank = sourceClassRanks.size();
+        sourceClassRanks.put(className, newRank);
+        return newRank;
+    }
+
+    /**
+     * The ids are not negative, therefore the couplings sort by the source id first and then by the target id.
+     */
+    private static long toCouplingId(final int sourceId, final int targetId) {
+        return ((long) sourceId << 32) | targetId;
+    }
+
+    private static int sourceId(final long couplingId) {
+        return (int) (couplingId >>> 32);
+    }
+
+    private static int targetId(final long couplingId) {
+        return (int) couplingId;
+    }
+
+    /**
+     * The couplings as pairs of method ids, which are converted into {@link MethodCoupling}s when they are read.
+     */
+    private static final class MethodCouplingList extends AbstractList<MethodCoupling> {
+
+        private final Method[] methods;
+
+        private final long[] couplings;
+
+        private MethodCouplingList(final Method[] methods, final long[] couplings) {
+            this.methods = methods;
+            this.couplings = couplings;
+        }
+
+        @Override
+        public MethodCoupling get(final int index) {
+            final long coupling = couplings[index];
+            return new MethodCoupling.Builder()
+                       .source(methods[sourceId(coupling)])
+                       .target(methods[targetId(coupling)])
+                       .build();
+        }
+
+        @Override
+        public int size() {
+            return couplings.length;
+        }
     }
 }
@@ -0,0 +1,200 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A set of primitive longs, backed by an open addressing hash table with linear probing.
+ * Unlike a {@code Set<Long>}, it does not box the values, and each value takes 8 bytes
+ * (plus the free slots) instead of an entry object and a {@link Long}. This class is not thread-safe.
+ */
+public final class LongHashSet {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Zero marks the free slots in the table, therefore it is tracked separately
+    private static final long FREE = 0L;
+
+    private long[] table;
+
+    private boolean containsFree = false;
+
+    private int size = 0;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize The number of values expected, to avoid resizing the table.
+     */
+    public LongHashSet(final int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize should not be negative");
+        }
+
+        this.table = new long[tableSizeFor(expectedSize)];
+    }
+
+    /**
+     * Adds the value to the set.
+     *
+     * @param value The value.
+     * @return True if the value was added, false if it was already in the set.
+     */
+    public boolean add(final long value) {
+        if (value == FREE) {
+            if (containsFree) {
+                return false;
+            }
+            containsFree = true;
+            size++;
+            return true;
+        }
+
+        final int mask = table.length - 1;
+        int index = hash(value) & mask;
+        while (table[index] != FREE) {
+            if (table[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        table[index] = value;
+        size++;
+        if (size * 2 > table.length) {
+            resize(table.length * 2);
+        }
+
+        return true;
+    }
+
+    public boolean contains(final long value) {
+        if (value == FREE) {
+            return containsFree;
+        }
+
+        final int mask = table.length - 1;
+        int index = hash(value) & mask;
+        while (table[index] != FREE) {
+            if (table[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Performs the given action for each value in the set, in no particular order.
+     *
+     * @param action The action.
+     */
+    public void forEach(final LongConsumer action) {
+        if (containsFree) {
+            action.accept(FREE);
+        }
+
+        for (long value : table) {
+            if (value != FREE) {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * @return The values in the set, in no particular order.
+     */
+    public long[] toArray() {
+        final long[] values = new long[size];
+        int i = 0;
+        if (containsFree) {
+            values[i++] = FREE;
+        }
+
+        for (long value : table) {
+            if (value != FREE) {
+                values[i++] = value;
+            }
+        }
+
+        return values;
+    }
+
+    private void resize(final int newLength) {
+        if (newLength <= 0) {
+            throw new IllegalStateException("LongHashSet cannot grow beyond " + size + " values");
+        }
+
+        final long[] oldTable = table;
+        final int mask = newLength - 1;
+        table = new long[newLength];
+        for (long value : oldTable) {
+            if (value != FREE) {
+                int index = hash(value) & mask;
+                while (table[index] != FREE) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = value;
+            }
+        }
+    }
+
+    /**
+     * The table is at most half full, and its length is a power of two.
+     */
+    private static int tableSizeFor(final int expectedSize) {
+        final long minLength = Math.max(DEFAULT_CAPACITY, (long) expectedSize * 2);
+        if (minLength > (1 << 30)) {
+            throw new IllegalArgumentException("expectedSize is too large: " + expectedSize);
+        }
+
+        return Integer.highestOneBit((int) minLength - 1) << 1;
+    }
+
+    /**
+     * The finalizer of MurmurHash3, which spreads the bits of the sequential ids to the whole table.
+     */
+    private static int hash(final long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    @Override
+    public String toString() {
+        final long[] values = toArray();
+        Arrays.sort(values);
+        return Arrays.toString(values);
+    }
+}
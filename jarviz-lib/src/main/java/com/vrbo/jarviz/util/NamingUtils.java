@@ -32,7 +32,7 @@ public final class NamingUtils {
             return null;
         }
 
-        return className.replaceAll("/", ".");
+        return className.replace('/', '.');
     }
 
     /**
@@ -47,6 +47,6 @@ public final class NamingUtils {
             return null;
         }
 
-        return className.replaceAll("\\.", "/");
+        return className.replace('.', '/');
     }
 }
@@ -0,0 +1,257 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * An output stream which writes the data in the gzip format, compressing the blocks of the data on multiple
+ * threads in the same way as pigz (https://zlib.net/pigz). Each block is compressed independently into raw deflate
+ * data, using the last 32 KB of the previous block as the dictionary, and flushed to a byte boundary so that
+ * the compressed blocks can be concatenated. The result is a single standard gzip member, which can be read
+ * by any gzip reader (e.g. {@link java.util.zip.GZIPInputStream}, zcat or Node's zlib).
+ * This is not thread safe, it should be written by a single thread.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final byte[] GZIP_HEADER = {
+        0x1f, (byte) 0x8b,  // Magic number
+        Deflater.DEFLATED,  // Compression method
+        0,                  // Flags
+        0, 0, 0, 0,         // Modification time (not available)
+        0,                  // Extra flags
+        (byte) 0xff         // Operating system (unknown)
+    };
+
+    private final OutputStream out;
+
+    private final ExecutorService executor;
+
+    private final int maxPendingBlocks;
+
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block;
+
+    private int blockLength = 0;
+
+    private byte[] dictionary = null;
+
+    private long totalLength = 0;
+
+    private boolean closed = false;
+
+    /**
+     * @param out     The underlying output stream, which will be closed by this stream.
+     * @param threads The number of compression threads.
+     * @throws IOException If the gzip header cannot be written.
+     */
+    public ParallelGzipOutputStream(final OutputStream out, final int threads) throws IOException {
+        this(out, threads, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param out       The underlying output stream, which will be closed by this stream.
+     * @param threads   The number of compression threads.
+     * @param blockSize The number of bytes compressed in each block.
+     * @throws IOException If the gzip header cannot be written.
+     */
+    public ParallelGzipOutputStream(final OutputStream out, final int threads, final int blockSize) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads should be at least 1");
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize should be at least 1");
+        }
+
+        // The header is written first, so that no thread is started if it cannot be written
+        out.write(GZIP_HEADER);
+
+        this.out = out;
+        this.executor = Executors.newFixedThreadPool(
+            threads, new ThreadFactoryBuilder().setNameFormat("jarviz-gzip-%d").setDaemon(true).build());
+        this.maxPendingBlocks = threads * 2;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        ensureOpen();
+        block[blockLength++] = (byte) b;
+        if (blockLength == block.length) {
+            submitBlock(false);
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        ensureOpen();
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int length = Math.min(remaining, block.length - blockLength);
+            System.arraycopy(b, offset, block, blockLength, length);
+            blockLength += length;
+            offset += length;
+            remaining -= length;
+            if (blockLength == block.length) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    /**
+     * Writes the blocks which are already compressed. The current block is not compressed until it is full
+     * (or the stream is closed), since compressing smaller blocks would reduce the compression ratio.
+     *
+     * @throws IOException If the data cannot be written.
+     */
+    @Override
+    public void flush() throws IOException {
+        while (!pendingBlocks.isEmpty() && pendingBlocks.peek().isDone()) {
+            out.write(awaitBlock(pendingBlocks.remove()));
+        }
+        out.flush();
+    }
+
+    /**
+     * Compresses the remaining data, writes the gzip trailer and closes the underlying stream.
+     *
+     * @throws IOException If the data cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            submitBlock(true);
+            while (!pendingBlocks.isEmpty()) {
+                out.write(awaitBlock(pendingBlocks.remove()));
+            }
+            writeTrailer();
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submitBlock(final boolean lastBlock) throws IOException {
+        final byte[] data = Arrays.copyOf(block, blockLength);
+        final byte[] blockDictionary = dictionary;
+        pendingBlocks.add(executor.submit(() -> compress(data, blockDictionary, lastBlock)));
+
+        crc.update(data, 0, data.length);
+        totalLength += data.length;
+        if (data.length >= DICTIONARY_SIZE) {
+            dictionary = Arrays.copyOfRange(data, data.length - DICTIONARY_SIZE, data.length);
+        } else if (data.length > 0) {
+            dictionary = data;
+        }
+        blockLength = 0;
+
+        while (pendingBlocks.size() >= maxPendingBlocks) {
+            out.write(awaitBlock(pendingBlocks.remove()));
+        }
+    }
+
+    /**
+     * Compresses a block into raw deflate data. The blocks are flushed to a byte boundary (with SYNC_FLUSH)
+     * so that the next block can be appended, and only the last block is marked as the end of the deflate data.
+     */
+    private static byte[] compress(final byte[] data, final byte[] dictionary, final boolean lastBlock) {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(data);
+
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 64);
+            final byte[] buffer = new byte[Math.max(data.length / 2, 1024)];
+            if (lastBlock) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                int length;
+                do {
+                    length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, length);
+                } while (length == buffer.length);
+            }
+
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeTrailer() throws IOException {
+        writeIntLittleEndian(crc.getValue());
+        // The length modulo 2^32
+        writeIntLittleEndian(totalLength);
+    }
+
+    private void writeIntLittleEndian(final long value) throws IOException {
+        out.write((int) value & 0xff);
+        out.write((int) (value >> 8) & 0xff);
+        out.write((int) (value >> 16) & 0xff);
+        out.write((int) (value >> 24) & 0xff);
+    }
+
+    private static byte[] awaitBlock(final Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing", e);
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IOException("Unable to compress", e.getCause());
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.visitor;
+
+import java.util.BitSet;
+import java.util.function.Predicate;
+
+import org.objectweb.asm.ClassReader;
+
+/**
+ * Scans the constant pool of a class, without parsing the rest of the class file.
+ */
+final class ConstantPoolScanner {
+
+    private static final int CONSTANT_METHODREF_TAG = 10;
+
+    private static final int CONSTANT_INTERFACE_METHODREF_TAG = 11;
+
+    private ConstantPoolScanner() {}
+
+    /**
+     * Checks whether the class references a method of any class accepted by the given predicate.
+     * Every method invocation, including the bootstrap method handles of invokedynamic, refers to
+     * a Methodref or InterfaceMethodref entry in the constant pool. Therefore if none of the owners
+     * of these entries are accepted, no coupling can be found by visiting the methods of this class.
+     *
+     * @param reader      The class reader.
+     * @param ownerFilter The predicate for the owner class names, in bytecode format (e.g.: foo/bar/MyClass).
+     * @return True if the class references a method of an accepted class.
+     */
+    static boolean referencesMethodOwner(final ClassReader reader, final Predicate<String> ownerFilter) {
+        final char[] charBuffer = new char[reader.getMaxStringLength()];
+        final BitSet scannedClassIndexes = new BitSet();
+
+        // The constant pool starts from index 1, and the second slot of a Long or Double entry has no offset
+        for (int i = 1; i < reader.getItemCount(); i++) {
+            final int offset = reader.getItem(i);
+            if (offset == 0) {
+                continue;
+            }
+
+            final int tag = reader.readByte(offset - 1);
+            if (tag == CONSTANT_METHODREF_TAG || tag == CONSTANT_INTERFACE_METHODREF_TAG) {
+                final int classIndex = reader.readUnsignedShort(offset);
+                if (!scannedClassIndexes.get(classIndex)) {
+                    scannedClassIndexes.set(classIndex);
+                    if (ownerFilter.test(reader.readClass(offset, charBuffer))) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+}
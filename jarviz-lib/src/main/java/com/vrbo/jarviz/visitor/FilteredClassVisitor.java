@@ -24,45 +24,96 @@ import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 
+import com.vrbo.jarviz.config.ClassParsingMode;
 import com.vrbo.jarviz.model.Collector;
 import com.vrbo.jarviz.model.Method;
 
-import static com.vrbo.jarviz.util.NamingUtils.toSourceCodeFormat;
-import static com.vrbo.jarviz.visitor.FilteredMethodVisitor.cleanseClassName;
+import static com.vrbo.jarviz.util.NamingUtils.toBytecodeFormat;
 
 public class FilteredClassVisitor extends ClassVisitor {
 
-    private final String className;
+    private final String internalClassName;
 
     private final ClassReader reader;
 
     private final Collector collect;
 
+    private final int parsingOptions;
+
+    private final SymbolTable symbolTable;
+
     public FilteredClassVisitor(final String className, final Collector collect) throws IOException {
-        this(className, collect, new ClassReader(className));
+        this(className, collect, new ClassReader(className), ClassParsingMode.FULL);
     }
 
     public FilteredClassVisitor(final String className, final Collector collect, final byte[] classData) {
-        this(className, collect, new ClassReader(classData));
+        this(className, collect, classData, ClassParsingMode.FULL);
+    }
+
+    public FilteredClassVisitor(final String className,
+                                final Collector collect,
+                                final byte[] classData,
+                                final ClassParsingMode parsingMode) {
+        this(className, collect, classData, parsingMode, new SymbolTable());
+    }
+
+    /**
+     * @param className   The class name.
+     * @param collect     The collector for the couplings.
+     * @param classData   The bytes of the class file.
+     * @param parsingMode The parts of the class file to be parsed.
+     * @param symbolTable The symbol table to canonicalize the methods, which can be shared with the other visitors.
+     */
+    public FilteredClassVisitor(final String className,
+                                final Collector collect,
+                                final byte[] classData,
+                                final ClassParsingMode parsingMode,
+                                final SymbolTable symbolTable) {
+        this(className, collect, new ClassReader(classData), parsingMode, symbolTable);
+    }
+
+    private FilteredClassVisitor(final String className,
+                                 final Collector collect,
+                                 final ClassReader classReader,
+                                 final ClassParsingMode parsingMode) {
+        this(className, collect, classReader, parsingMode, new SymbolTable());
     }
 
-    private FilteredClassVisitor(final String className, final Collector collect, final ClassReader classReader) {
+    private FilteredClassVisitor(final String className,
+                                 final Collector collect,
+                                 final ClassReader classReader,
+                                 final ClassParsingMode parsingMode,
+                                 final SymbolTable symbolTable) {
         super(Opcodes.ASM7);
 
         Objects.requireNonNull(className);
         Objects.requireNonNull(collect);
+        Objects.requireNonNull(parsingMode);
+        Objects.requireNonNull(symbolTable);
 
-        this.className = cleanseClassName(toSourceCodeFormat(className));
+        this.internalClassName = toBytecodeFormat(className);
         this.collect = collect;
+        this.parsingOptions = toParsingOptions(parsingMode);
+        this.symbolTable = symbolTable;
 
         this.reader = classReader;
     }
 
     /**
      * This will scan this class and visit all the method contents to scan for dependencies.
+     * The constant pool is scanned first, and the class is not visited if it does not reference
+     * any method of a class accepted by the collector (see {@link Collector#acceptsTargetClass(String)}).
+     *
+     * @return True if the class was visited, false if it was skipped.
      */
-    public void visit() {
-        reader.accept(this, 0);
+    public boolean visit() {
+        if (!ConstantPoolScanner.referencesMethodOwner(
+            reader, owner -> collect.acceptsTargetClass(symbolTable.getClassName(owner)))) {
+            return false;
+        }
+
+        reader.accept(this, parsingOptions);
+        return true;
     }
 
     @Override
@@ -72,10 +123,23 @@ public class FilteredClassVisitor extends ClassVisitor {
                                      final String signature,
                                      final String[] exceptions) {
         final MethodVisitor methodVisitor = super.visitMethod(access, name, descriptor, signature, exceptions);
-        final Method method = new Method.Builder()
-                                  .className(className)
-                                  .methodName(name)
-                                  .build();
-        return new FilteredMethodVisitor(method, methodVisitor, collect);
+        final Method method = symbolTable.getMethod(internalClassName, name);
+        return new FilteredMethodVisitor(method, methodVisitor, collect, symbolTable);
+    }
+
+    /**
+     * Maps the parsing mode to the {@link ClassReader} parsing options.
+     *
+     * @param parsingMode The parsing mode.
+     * @return The parsing options.
+     */
+    static int toParsingOptions(final ClassParsingMode parsingMode) {
+        switch (parsingMode) {
+            case SKIP_DEBUG_AND_FRAMES:
+                return ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+            case FULL:
+            default:
+                return 0;
+        }
     }
 }
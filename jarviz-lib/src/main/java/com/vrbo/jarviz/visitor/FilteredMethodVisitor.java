@@ -22,9 +22,6 @@ import org.objectweb.asm.Opcodes;
 
 import com.vrbo.jarviz.model.Collector;
 import com.vrbo.jarviz.model.Method;
-import com.vrbo.jarviz.model.MethodCoupling;
-
-import static com.vrbo.jarviz.util.NamingUtils.toSourceCodeFormat;
 
 public class FilteredMethodVisitor extends MethodVisitor {
 
@@ -32,12 +29,22 @@ public class FilteredMethodVisitor extends MethodVisitor {
 
     private final Collector collect;
 
+    private final SymbolTable symbolTable;
+
     public FilteredMethodVisitor(final Method sourceMethod,
                                  final MethodVisitor methodVisitor,
                                  final Collector collect) {
+        this(sourceMethod, methodVisitor, collect, new SymbolTable());
+    }
+
+    public FilteredMethodVisitor(final Method sourceMethod,
+                                 final MethodVisitor methodVisitor,
+                                 final Collector collect,
+                                 final SymbolTable symbolTable) {
         super(Opcodes.ASM7, methodVisitor);
         this.sourceMethod = sourceMethod;
         this.collect = collect;
+        this.symbolTable = symbolTable;
     }
 
     @Override
@@ -62,17 +69,7 @@ public class FilteredMethodVisitor extends MethodVisitor {
     private void handleTargetMethod(final String targetClassName,
                                     final String targetMethodName,
                                     final String targetMethodDescriptor) {
-        final Method targetMethod = new Method.Builder()
-                                        .className(cleanseClassName(toSourceCodeFormat(targetClassName)))
-                                        .methodName(targetMethodName)
-                                        .build();
-
-        collect.collectMethodCoupling(
-            new MethodCoupling.Builder()
-                .source(sourceMethod)
-                .target(targetMethod)
-                .build()
-        );
+        collect.collectMethodCoupling(sourceMethod, symbolTable.getMethod(targetClassName, targetMethodName));
     }
 
     static String cleanseClassName(final String methodName) {
@@ -0,0 +1,101 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.visitor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.vrbo.jarviz.model.Method;
+
+import static com.vrbo.jarviz.util.NamingUtils.toSourceCodeFormat;
+import static com.vrbo.jarviz.visitor.FilteredMethodVisitor.cleanseClassName;
+
+/**
+ * Canonicalizes the class names, method names and {@link Method}s found while visiting the classes.
+ * The same symbol table can be shared by all the visitors (including concurrent ones) in a single run,
+ * so that each distinct class name is converted to the source code format only once, and each distinct
+ * method is represented by a single {@link Method} instance. Looking up a symbol which is already in the
+ * table does not allocate any objects.
+ */
+public class SymbolTable {
+
+    private final ConcurrentMap<String, ClassSymbols> classes = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, String> methodNames = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the canonical class name in source code format, as it appears in the couplings.
+     * e.g.: For "com/foo/bar/MyClass", returns "com.foo.bar.MyClass"
+     *
+     * @param internalName The class name in bytecode format.
+     * @return The class name.
+     */
+    public String getClassName(final String internalName) {
+        return getClassSymbols(internalName).className;
+    }
+
+    /**
+     * Returns the canonical {@link Method} for the given class and method names.
+     *
+     * @param internalClassName The class name in bytecode format.
+     * @param methodName        The method name.
+     * @return The method.
+     */
+    public Method getMethod(final String internalClassName, final String methodName) {
+        return getClassSymbols(internalClassName).getMethod(methodName);
+    }
+
+    private ClassSymbols getClassSymbols(final String internalName) {
+        final ClassSymbols classSymbols = classes.get(internalName);
+        if (classSymbols != null) {
+            return classSymbols;
+        }
+
+        return classes.computeIfAbsent(internalName, n -> new ClassSymbols(cleanseClassName(toSourceCodeFormat(n))));
+    }
+
+    private String getMethodName(final String methodName) {
+        final String canonicalName = methodNames.putIfAbsent(methodName, methodName);
+        return canonicalName != null ? canonicalName : methodName;
+    }
+
+    /**
+     * The symbols of a single class.
+     */
+    private final class ClassSymbols {
+
+        private final String className;
+
+        private final ConcurrentMap<String, Method> methods = new ConcurrentHashMap<>();
+
+        private ClassSymbols(final String className) {
+            this.className = className;
+        }
+
+        private Method getMethod(final String methodName) {
+            final Method method = methods.get(methodName);
+            if (method != null) {
+                return method;
+            }
+
+            return methods.computeIfAbsent(methodName, n -> new Method.Builder()
+                                                                .className(className)
+                                                                .methodName(getMethodName(n))
+                                                                .build());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.benchmark;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+import com.vrbo.jarviz.config.ClassParsingMode;
+import com.vrbo.jarviz.model.Artifact;
+import com.vrbo.jarviz.model.ShadowClass;
+import com.vrbo.jarviz.service.ArchiveClassLoaderService;
+import com.vrbo.jarviz.service.UsageCollector;
+import com.vrbo.jarviz.visitor.FilteredClassVisitor;
+import com.vrbo.jarviz.visitor.SymbolTable;
+
+/**
+ * Measures the time to visit all the classes of the Guava jar (compiled with debug information)
+ * for each {@link ClassParsingMode}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClassParsingBenchmark {
+
+    private static final Artifact GUAVA_ARTIFACT = new Artifact.Builder()
+                                                       .groupId("com.google.guava")
+                                                       .artifactId("guava")
+                                                       .version("benchmark")
+                                                       .build();
+
+    @Param({"FULL", "SKIP_DEBUG_AND_FRAMES"})
+    public ClassParsingMode parsingMode;
+
+    private List<ShadowClass> classes;
+
+    @Setup
+    public void setup() throws URISyntaxException {
+        final File guavaJar = new File(ImmutableList.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        classes = new ArchiveClassLoaderService(artifact -> guavaJar).getAllClasses(GUAVA_ARTIFACT);
+    }
+
+    @Benchmark
+    public int visitAllClasses() {
+        final UsageCollector collector = new UsageCollector();
+        final SymbolTable symbolTable = new SymbolTable();
+        for (ShadowClass c : classes) {
+            new FilteredClassVisitor(c.getClassName(), collector, c.getClassBytes(), parsingMode, symbolTable).visit();
+        }
+
+        return collector.getMethodCouplings().size();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vrbo.jarviz.model.CouplingRecord;
+import com.vrbo.jarviz.service.CouplingRecordWriter;
+import com.vrbo.jarviz.util.JsonUtils;
+
+/**
+ * Measures the records written per second by {@link CouplingRecordWriter},
+ * compared to serializing each record into a String with the ObjectMapper and writing it to a PrintWriter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CouplingRecordWriterBenchmark {
+
+    private static final int RECORD_COUNT = 100_000;
+
+    private CouplingRecord[] records;
+
+    private File outputFile;
+
+    @Setup
+    public void setup() throws IOException {
+        records = new CouplingRecord[RECORD_COUNT];
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            records[i] = new CouplingRecord.Builder()
+                             .appSetName("BenchmarkAppSet")
+                             .applicationName("BenchmarkApp" + (i % 10))
+                             .artifactFileName("benchmark-artifact-1.0.0.jar")
+                             .artifactId("benchmark-artifact")
+                             .artifactGroup("com.vrbo.jarviz.benchmark")
+                             .artifactVersion("1.0.0")
+                             .sourceClass("com.vrbo.jarviz.benchmark.source.MySourceClass" + (i % 100))
+                             .sourceMethod("doSomething" + (i % 7))
+                             .targetClass("com.vrbo.jarviz.benchmark.target.MyTargetClass" + (i % 50))
+                             .targetMethod("getValue" + (i % 13))
+                             .build();
+        }
+        outputFile = File.createTempFile("jarviz-benchmark", ".jsonl");
+    }
+
+    @TearDown
+    public void tearDown() {
+        outputFile.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORD_COUNT)
+    public void couplingRecordWriter() {
+        final CouplingRecordWriter writer = new CouplingRecordWriter(outputFile.getPath());
+        for (CouplingRecord record : records) {
+            writer.write(record);
+        }
+        writer.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORD_COUNT)
+    public void objectMapperToString() throws IOException {
+        try (Writer writer = new PrintWriter(outputFile, "UTF-8")) {
+            for (CouplingRecord record : records) {
+                writer.write(JsonUtils.toJsonString(record));
+                writer.write('\n');
+            }
+        }
+    }
+}
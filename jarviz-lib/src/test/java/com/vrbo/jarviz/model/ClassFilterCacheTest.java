@@ -0,0 +1,82 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vrbo.jarviz.config.CouplingFilterConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClassFilterCacheTest {
+
+    private static final List<Method> METHODS = Arrays.asList(
+        method("com.foo.MySourceClass", "iAmCallingYou"),
+        method("com.foo.MyTargetClass", "whyDoYouCallMe"),
+        method("com.bar.MyTargetClass", "whyDoYouCallMe"),
+        method("com.bar.MyTargetClass", "getToken"),
+        method("java.lang.String", "valueOf"),
+        method("MyClass", "doThat"));
+
+    private static final List<CouplingFilterConfig> FILTER_CONFIGS = Arrays.asList(
+        new CouplingFilterConfig.Builder().build(),
+        new CouplingFilterConfig.Builder()
+            .include(new CouplingFilter.Builder().sourcePackage("^com\\.foo$").targetPackage("^com\\..*$").build())
+            .build(),
+        new CouplingFilterConfig.Builder()
+            .include(new CouplingFilter.Builder().targetClass("MyTargetClass").targetMethod("why.*").build())
+            .exclude(new CouplingFilter.Builder().sourcePackage("com\\.bar").build())
+            .build(),
+        new CouplingFilterConfig.Builder()
+            .exclude(new CouplingFilter.Builder().targetPackage("java\\.lang").sourceMethod("getToken").build())
+            .build());
+
+    @Test
+    public void testFilterMethodCoupling_SameAsCouplingFilterUtils() {
+        for (CouplingFilterConfig filterConfig : FILTER_CONFIGS) {
+            final ClassFilterCache cache = new ClassFilterCache(filterConfig, 2);
+            for (Method source : METHODS) {
+                for (Method target : METHODS) {
+                    assertThat(cache.filterMethodCoupling(source, target))
+                        .as("%s: %s -> %s", filterConfig, source, target)
+                        .isEqualTo(CouplingFilterUtils.filterMethodCoupling(filterConfig, source, target));
+                }
+                assertThat(cache.filterTargetClass(source.getClassName()))
+                    .isEqualTo(CouplingFilterUtils.filterTargetClass(filterConfig, source.getClassName()));
+            }
+        }
+    }
+
+    @Test
+    public void testGetStats() {
+        final ClassFilterCache cache = new ClassFilterCache(FILTER_CONFIGS.get(1), 100);
+
+        cache.filterMethodCoupling(METHODS.get(0), METHODS.get(1));
+        cache.filterMethodCoupling(METHODS.get(0), METHODS.get(2));
+        cache.filterMethodCoupling(METHODS.get(0), METHODS.get(3));
+
+        assertThat(cache.getStats().missCount()).isEqualTo(3);
+        assertThat(cache.getStats().hitCount()).isEqualTo(3);
+    }
+
+    private static Method method(final String className, final String methodName) {
+        return new Method.Builder().className(className).methodName(methodName).build();
+    }
+}
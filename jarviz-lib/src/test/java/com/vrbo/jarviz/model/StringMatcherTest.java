@@ -0,0 +1,84 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.model;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.Test;
+
+import com.vrbo.jarviz.model.StringMatcherCompiler.LiteralMatcher;
+import com.vrbo.jarviz.model.StringMatcherCompiler.RegexMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class StringMatcherTest {
+
+    private static final String[] STRINGS = {
+        "", "com", "com.xyz", "com.xyz.foo", "com.xyz.foo.bar", "com.xyz.bar", "comxxyz", "org.xyz.foo",
+        "MyClass", "MyClass1", "MyClass5", "getToken", "setToken", "isToken", "token", "a|b", "$", "Foo$Bar"
+    };
+
+    @Test
+    public void testCompile_LiteralPatterns() {
+        assertSameAsRegex("com\\.xyz", LiteralMatcher.class);
+        assertSameAsRegex("^com\\.xyz$", LiteralMatcher.class);
+        assertSameAsRegex("com\\.xyz\\..*", LiteralMatcher.class);
+        assertSameAsRegex("^(com\\.xyz\\.foo|com\\.xyz\\.bar).*$", LiteralMatcher.class);
+        assertSameAsRegex("^(com\\.xyz\\.foo|com\\.xyz\\.bar)$", LiteralMatcher.class);
+        assertSameAsRegex("com\\.xyz\\.(?:foo|bar)", LiteralMatcher.class);
+        assertSameAsRegex("^(get|set|is)Token$", LiteralMatcher.class);
+        assertSameAsRegex(".*Token", LiteralMatcher.class);
+        assertSameAsRegex(".*xyz.*", LiteralMatcher.class);
+        assertSameAsRegex("com|.*Token|org.*", LiteralMatcher.class);
+        assertSameAsRegex(".*", LiteralMatcher.class);
+        assertSameAsRegex("", LiteralMatcher.class);
+        assertSameAsRegex("a\\|b", LiteralMatcher.class);
+        assertSameAsRegex("\\$", LiteralMatcher.class);
+        assertSameAsRegex("Foo\\$Bar", LiteralMatcher.class);
+    }
+
+    @Test
+    public void testCompile_RegexPatterns() {
+        assertSameAsRegex("^MyClass[1-4]$", RegexMatcher.class);
+        assertSameAsRegex("com.xyz", RegexMatcher.class);
+        assertSameAsRegex("com\\.xyz\\.\\w+", RegexMatcher.class);
+        assertSameAsRegex("^(get|set)?Token$", RegexMatcher.class);
+        assertSameAsRegex("(com|org)\\.(xyz|foo)", RegexMatcher.class);
+        assertSameAsRegex("(?i)token", RegexMatcher.class);
+        assertSameAsRegex("com\\.xyz\\.*", RegexMatcher.class);
+    }
+
+    @Test
+    public void testCompile_InvalidPattern() {
+        assertThatExceptionOfType(PatternSyntaxException.class).isThrownBy(() -> StringMatcher.compile("\\"));
+        assertThatExceptionOfType(PatternSyntaxException.class).isThrownBy(() -> StringMatcher.compile("(com"));
+    }
+
+    private static void assertSameAsRegex(final String regex, final Class<? extends StringMatcher> matcherType) {
+        final StringMatcher matcher = StringMatcher.compile(regex);
+        final Pattern pattern = Pattern.compile(regex);
+
+        assertThat(matcher).isInstanceOf(matcherType);
+        for (String string : STRINGS) {
+            assertThat(matcher.matches(string))
+                .as("%s matches %s", regex, string)
+                .isEqualTo(pattern.matcher(string).matches());
+        }
+    }
+}
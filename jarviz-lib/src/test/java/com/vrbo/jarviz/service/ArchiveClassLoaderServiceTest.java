@@ -0,0 +1,137 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.ByteStreams;
+import com.vrbo.jarviz.model.Artifact;
+import com.vrbo.jarviz.model.ShadowClass;
+import com.vrbo.jarviz.util.classloadertest.MyTestClass1;
+import com.vrbo.jarviz.util.classloadertest.MyTestClass2;
+import com.vrbo.jarviz.util.classloadertest.OutlierClass;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static com.vrbo.jarviz.service.ArchiveClassLoaderService.entryNameToClassName;
+
+public class ArchiveClassLoaderServiceTest {
+
+    private static final Artifact ARTIFACT = new Artifact.Builder()
+                                                 .groupId("com.vrbo.jarviz")
+                                                 .artifactId("classloadertest")
+                                                 .version("1.0.0")
+                                                 .build();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testGetAllClasses_SameAsJarClassLoaderService() throws IOException {
+        final File jarFile = createTestJar();
+        final ArtifactDiscoveryService discoveryService = artifact -> jarFile;
+
+        final List<ShadowClass> classes = new ArchiveClassLoaderService(discoveryService).getAllClasses(ARTIFACT);
+
+        assertThat(classes).extracting(ShadowClass::getClassName)
+                           .containsExactly("WEB-INF.classes.com.foo.Bar",
+                                            MyTestClass1.class.getName(),
+                                            MyTestClass2.class.getName(),
+                                            OutlierClass.class.getName());
+        assertThat(classes).isEqualTo(new JarClassLoaderService(discoveryService).getAllClasses(ARTIFACT));
+    }
+
+    @Test
+    public void testGetAllClasses_WithClassNameFilter() throws IOException {
+        final File jarFile = createTestJar();
+
+        final List<ShadowClass> classes =
+            new ArchiveClassLoaderService(artifact -> jarFile).getAllClasses(ARTIFACT, s -> s.contains("MyTestClass"));
+
+        assertThat(classes).extracting(ShadowClass::getClassName)
+                           .containsExactly(MyTestClass1.class.getName(), MyTestClass2.class.getName());
+    }
+
+    @Test
+    public void testGetAllClasses_MissingJarFile() {
+        final File jarFile = new File(temporaryFolder.getRoot(), ARTIFACT.toFileName());
+
+        assertThat(new ArchiveClassLoaderService(artifact -> jarFile).getAllClasses(ARTIFACT)).isEmpty();
+    }
+
+    @Test
+    public void testStreamAllClasses() throws IOException {
+        final File jarFile = createTestJar();
+        final ArchiveClassLoaderService classLoaderService = new ArchiveClassLoaderService(artifact -> jarFile);
+
+        try (Stream<ShadowClass> classes = classLoaderService.streamAllClasses(ARTIFACT)) {
+            assertThat(classes.collect(Collectors.toList())).isEqualTo(classLoaderService.getAllClasses(ARTIFACT));
+        }
+    }
+
+    @Test
+    public void testStreamAllClasses_MissingJarFile() {
+        final File jarFile = new File(temporaryFolder.getRoot(), ARTIFACT.toFileName());
+
+        try (Stream<ShadowClass> classes = new ArchiveClassLoaderService(artifact -> jarFile).streamAllClasses(ARTIFACT)) {
+            assertThat(classes).isEmpty();
+        }
+    }
+
+    @Test
+    public void testEntryNameToClassName() {
+        assertThat(entryNameToClassName("com/foo/bar/MyClass.class")).isEqualTo("com.foo.bar.MyClass");
+        assertThat(entryNameToClassName("MyClass.class")).isEqualTo("MyClass");
+    }
+
+    private File createTestJar() throws IOException {
+        final File jarFile = temporaryFolder.newFile(ARTIFACT.toFileName());
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jarFile))) {
+            out.putNextEntry(new ZipEntry("META-INF/"));
+            out.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            out.write("Manifest-Version: 1.0\n".getBytes());
+            writeClassEntry(out, OutlierClass.class, null);
+            writeClassEntry(out, MyTestClass2.class, null);
+            writeClassEntry(out, MyTestClass1.class, null);
+            writeClassEntry(out, MyTestClass1.class, "WEB-INF/classes/com/foo/Bar.class");
+        }
+
+        return jarFile;
+    }
+
+    private static void writeClassEntry(final ZipOutputStream out,
+                                        final Class<?> clazz,
+                                        final String entryName) throws IOException {
+        final String resourceName = clazz.getName().replace('.', '/') + ".class";
+        out.putNextEntry(new ZipEntry(entryName != null ? entryName : resourceName));
+        try (InputStream in = clazz.getClassLoader().getResourceAsStream(resourceName)) {
+            out.write(ByteStreams.toByteArray(in));
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vrbo.jarviz.model.Artifact;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ArtifactCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+
+    @Before
+    public void setup() throws IOException {
+        directory = temporaryFolder.newFolder("artifacts");
+    }
+
+    @Test
+    public void testRecordAccess_EvictsLeastRecentlyUsed() throws Exception {
+        final ArtifactCache cache = new ArtifactCache(directory.getPath(), 250);
+
+        access(cache, artifact(0));
+        access(cache, artifact(1));
+        access(cache, artifact(2));
+        assertThat(fileNames()).containsExactly(artifact(1).toFileName(), artifact(2).toFileName());
+
+        access(cache, artifact(1));
+        access(cache, artifact(3));
+        assertThat(fileNames()).containsExactly(artifact(1).toFileName(), artifact(3).toFileName());
+
+        assertThat(Files.readAllLines(new File(directory, ArtifactCache.INDEX_FILE_NAME).toPath()))
+            .hasSize(2)
+            .anySatisfy(line -> assertThat(line).startsWith(artifact(3).toFileName() + "\t" + artifact(3).toMavenId() + "\t100\t"));
+    }
+
+    @Test
+    public void testRecordAccess_NeverEvictsAccessedArtifacts() throws Exception {
+        final ArtifactCache cache = new ArtifactCache(directory.getPath(), 50);
+
+        access(cache, artifact(0));
+        access(cache, artifact(1));
+
+        assertThat(fileNames()).containsExactly(artifact(1).toFileName());
+    }
+
+    @Test
+    public void testRecordAccess_UntrackedFiles() throws Exception {
+        final File untrackedFile = new File(directory, "untracked.jar");
+        Files.write(untrackedFile.toPath(), new byte[100]);
+        Files.setLastModifiedTime(untrackedFile.toPath(), FileTime.fromMillis(0));
+        final ArtifactCache cache = new ArtifactCache(directory.getPath(), 250);
+
+        access(cache, artifact(0));
+        assertThat(fileNames()).containsExactly(artifact(0).toFileName(), "untracked.jar");
+
+        // The untracked file is older than the artifacts accessed
+        access(cache, artifact(1));
+        assertThat(fileNames()).containsExactly(artifact(0).toFileName(), artifact(1).toFileName());
+    }
+
+    @Test
+    public void testRecordAccess_Disabled() throws Exception {
+        final ArtifactCache cache = new ArtifactCache(directory.getPath(), 0);
+
+        access(cache, artifact(0));
+        access(cache, artifact(1));
+
+        assertThat(cache.isEnabled()).isFalse();
+        assertThat(directory.list()).containsExactlyInAnyOrder(artifact(0).toFileName(), artifact(1).toFileName());
+    }
+
+    @Test
+    public void testRecordAccess_ConcurrentCaches() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                final Artifact artifact = artifact(i);
+                Files.write(new File(directory, artifact.toFileName()).toPath(), new byte[100]);
+                // Separate instances, as used by separate services or processes
+                final ArtifactCache cache = new ArtifactCache(directory.getPath(), 100 * 20);
+                futures.add(executor.submit(() -> cache.recordAccess(Collections.singletonList(artifact))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(fileNames()).hasSize(20);
+        assertThat(Files.readAllLines(new File(directory, ArtifactCache.INDEX_FILE_NAME).toPath()))
+            .hasSize(20)
+            .allSatisfy(line -> assertThat(line).contains("\tcom.vrbo.jarviz:a"));
+    }
+
+    @Test
+    public void testPin_SmallerThanPinnedArtifacts() throws Exception {
+        final ArtifactCache cache = new ArtifactCache(directory.getPath(), 250);
+        final List<Artifact> artifacts = Arrays.asList(artifact(0), artifact(1), artifact(2), artifact(3));
+        cache.pin(artifacts);
+
+        for (Artifact artifact : artifacts) {
+            access(cache, artifact);
+        }
+        assertThat(fileNames()).hasSize(4);
+
+        // Pinned twice, so still pinned after a single unpin
+        cache.pin(Collections.singletonList(artifact(0)));
+        cache.unpin(Arrays.asList(artifact(0), artifact(1)));
+        access(cache, artifact(3));
+        assertThat(fileNames()).containsExactly(artifact(0).toFileName(), artifact(2).toFileName(), artifact(3).toFileName());
+
+        cache.unpin(artifacts);
+        access(cache, artifact(3));
+        assertThat(fileNames()).containsExactly(artifact(2).toFileName(), artifact(3).toFileName());
+        assertThat(directory.list()).noneMatch(name -> name.startsWith(ArtifactCache.PIN_FILE_PREFIX));
+    }
+
+    @Test
+    public void testPin_ByAnotherCache() throws Exception {
+        final ArtifactCache pinningCache = new ArtifactCache(directory.getPath(), 150);
+        final ArtifactCache cache = new ArtifactCache(directory.getPath(), 150);
+
+        access(cache, artifact(0));
+        pinningCache.pin(Collections.singletonList(artifact(0)));
+        access(cache, artifact(1));
+        access(cache, artifact(2));
+
+        assertThat(fileNames()).containsExactly(artifact(0).toFileName(), artifact(2).toFileName());
+        pinningCache.unpin(Collections.singletonList(artifact(0)));
+    }
+
+    @Test
+    public void testPin_StalePinFile() throws Exception {
+        // Left by a process which died, so it is not locked anymore
+        final File pinFile = new File(directory, ArtifactCache.PIN_FILE_PREFIX + "stale");
+        Files.write(pinFile.toPath(), Collections.singletonList(artifact(0).toFileName()));
+        final ArtifactCache cache = new ArtifactCache(directory.getPath(), 150);
+
+        access(cache, artifact(0));
+        access(cache, artifact(1));
+
+        assertThat(fileNames()).containsExactly(artifact(1).toFileName());
+        assertThat(pinFile).doesNotExist();
+    }
+
+    /**
+     * Creates the artifact file, as if it was fetched, and records its access.
+     */
+    private void access(final ArtifactCache cache, final Artifact artifact) throws IOException, InterruptedException {
+        final File file = new File(directory, artifact.toFileName());
+        if (!file.exists()) {
+            Files.write(file.toPath(), new byte[100]);
+        }
+        cache.recordAccess(Collections.singletonList(artifact));
+        // The access times should be different
+        Thread.sleep(5);
+    }
+
+    private List<String> fileNames() {
+        final List<String> fileNames = new ArrayList<>();
+        for (String fileName : directory.list()) {
+            if (!fileName.startsWith(".")) {
+                fileNames.add(fileName);
+            }
+        }
+        Collections.sort(fileNames);
+        return fileNames;
+    }
+
+    private static Artifact artifact(final int i) {
+        return new Artifact.Builder()
+                   .groupId("com.vrbo.jarviz")
+                   .artifactId("a" + i)
+                   .version("1.0.0")
+                   .build();
+    }
+}
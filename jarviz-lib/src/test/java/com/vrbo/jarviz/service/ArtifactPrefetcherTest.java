@@ -0,0 +1,216 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vrbo.jarviz.model.Artifact;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ArtifactPrefetcherTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testPrefetch_LimitedByDepth() throws InterruptedException, ArtifactNotFoundException {
+        final RecordingDiscoveryService discoveryService = new RecordingDiscoveryService(1);
+
+        try (ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(discoveryService, artifacts(6), 2, 0)) {
+            prefetcher.await(1);
+            Thread.sleep(50);
+            assertThat(discoveryService.discovered()).containsExactly("a0", "a1");
+            assertThat(discoveryService.windows).containsExactly(2);
+
+            prefetcher.release();
+            prefetcher.await(2);
+            Thread.sleep(50);
+            assertThat(discoveryService.discovered()).containsExactly("a0", "a1", "a2");
+
+            for (int i = 3; i < 6; i++) {
+                prefetcher.release();
+                prefetcher.await(i);
+            }
+            assertThat(discoveryService.discovered()).containsExactly("a0", "a1", "a2", "a3", "a4", "a5");
+        }
+    }
+
+    @Test
+    public void testPrefetch_LimitedByDiskBudget() throws InterruptedException, ArtifactNotFoundException {
+        final RecordingDiscoveryService discoveryService = new RecordingDiscoveryService(100);
+
+        try (ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(discoveryService, artifacts(4), 3, 150)) {
+            prefetcher.await(1);
+            Thread.sleep(50);
+            // The depth allows a2 to be resolved, but a0 and a1 (200 bytes) already exceed the budget
+            assertThat(discoveryService.discovered()).containsExactly("a0", "a1");
+
+            prefetcher.release();
+            prefetcher.await(2);
+            Thread.sleep(50);
+            assertThat(discoveryService.discovered()).containsExactly("a0", "a1", "a2");
+
+            prefetcher.release();
+            prefetcher.await(3);
+            assertThat(discoveryService.discovered()).containsExactly("a0", "a1", "a2", "a3");
+            // Resolved one by one within the budget, without resolveArtifacts
+            assertThat(discoveryService.windows).isEmpty();
+        }
+    }
+
+    @Test
+    public void testPrefetch_AvailableArtifactsNotCounted() throws InterruptedException, ArtifactNotFoundException {
+        final RecordingDiscoveryService discoveryService = new RecordingDiscoveryService(100, "a0", "a1");
+
+        try (ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(discoveryService, artifacts(4), 3, 150)) {
+            prefetcher.await(2);
+            Thread.sleep(50);
+            // a0 and a1 are not fetched, so only a2 (100 bytes) counts towards the budget
+            assertThat(discoveryService.discovered()).containsExactly("a0", "a1", "a2");
+        }
+    }
+
+    @Test
+    public void testPrefetch_FailureReportedByAwait() throws InterruptedException, ArtifactNotFoundException {
+        final AtomicInteger discoveryCount = new AtomicInteger();
+        final ArtifactDiscoveryService discoveryService = artifact -> {
+            discoveryCount.incrementAndGet();
+            if (artifact.getArtifactId().equals("a1")) {
+                throw new ArtifactNotFoundException("Unable to fetch the artifact");
+            }
+            return new File(temporaryFolder.getRoot(), artifact.toFileName());
+        };
+
+        try (ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(discoveryService, artifacts(3), 1, 0)) {
+            prefetcher.await(0);
+            prefetcher.release();
+
+            assertThatThrownBy(() -> prefetcher.await(1)).isInstanceOf(ArtifactNotFoundException.class);
+            prefetcher.release();
+            prefetcher.await(2);
+            assertThat(discoveryCount.get()).isEqualTo(3);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testPrefetch_PublishedOneByOne() throws InterruptedException, ArtifactNotFoundException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final ArtifactDiscoveryService discoveryService = artifact -> {
+            if (artifact.getArtifactId().equals("a1")) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new File(temporaryFolder.getRoot(), artifact.toFileName());
+        };
+
+        try (ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(discoveryService, artifacts(3), 3, 0)) {
+            // The first artifact does not wait for the rest of its window
+            prefetcher.await(0);
+
+            latch.countDown();
+            prefetcher.await(2);
+        }
+    }
+
+    @Test
+    public void testPrefetch_Closed() throws InterruptedException, ArtifactNotFoundException {
+        final ArtifactDiscoveryService discoveryService =
+            artifact -> new File(temporaryFolder.getRoot(), artifact.toFileName());
+        final ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(discoveryService, artifacts(4), 1, 0);
+        prefetcher.close();
+
+        // Never blocks once closed
+        prefetcher.await(3);
+    }
+
+    private static List<Artifact> artifacts(final int count) {
+        final List<Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            artifacts.add(new Artifact.Builder()
+                              .groupId("com.vrbo.jarviz")
+                              .artifactId("a" + i)
+                              .version("1.0.0")
+                              .build());
+        }
+        return artifacts;
+    }
+
+    /**
+     * Records the artifacts discovered, and returns a file with the given size for each. The given artifacts are
+     * reported as available without fetching them.
+     */
+    private final class RecordingDiscoveryService implements ArtifactDiscoveryService {
+
+        private final List<String> discovered = new ArrayList<>();
+
+        private final List<Integer> windows = new ArrayList<>();
+
+        private final int fileSize;
+
+        private final Set<String> availableArtifactIds;
+
+        private RecordingDiscoveryService(final int fileSize, final String... availableArtifactIds) {
+            this.fileSize = fileSize;
+            this.availableArtifactIds = new HashSet<>(Arrays.asList(availableArtifactIds));
+        }
+
+        @Override
+        public synchronized File discoverArtifact(final Artifact artifact) {
+            discovered.add(artifact.getArtifactId());
+            try {
+                final File file = temporaryFolder.newFile(artifact.toFileName());
+                Files.write(file.toPath(), new byte[fileSize]);
+                return file;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean isArtifactAvailable(final Artifact artifact) {
+            return availableArtifactIds.contains(artifact.getArtifactId());
+        }
+
+        @Override
+        public synchronized void resolveArtifacts(final Collection<Artifact> artifacts) {
+            windows.add(artifacts.size());
+        }
+
+        private synchronized List<String> discovered() {
+            return new ArrayList<>(discovered);
+        }
+    }
+}
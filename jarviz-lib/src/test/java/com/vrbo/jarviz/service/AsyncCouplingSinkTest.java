@@ -0,0 +1,107 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vrbo.jarviz.model.CouplingRecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class AsyncCouplingSinkTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWrite_SameAsCouplingRecordWriter() throws IOException {
+        final File syncFile = temporaryFolder.newFile();
+        final File asyncFile = temporaryFolder.newFile();
+
+        final CouplingRecordWriter syncWriter = new CouplingRecordWriter(syncFile.getPath());
+        final CouplingSink asyncWriter = new AsyncCouplingSink(new CouplingRecordWriter(asyncFile.getPath()), 2);
+        for (int i = 0; i < 1000; i++) {
+            syncWriter.write(record(i));
+            asyncWriter.write(record(i));
+        }
+
+        assertThat(syncWriter.close()).isTrue();
+        assertThat(asyncWriter.close()).isTrue();
+        assertThat(asyncFile).hasSameContentAs(syncFile);
+    }
+
+    @Test
+    public void testClose_ReportsWriteFailure() {
+        final File file = new File(temporaryFolder.getRoot(), "missing/couplings.jsonl");
+        final CouplingSink writer = new AsyncCouplingSink(new CouplingRecordWriter(file.getPath()), 2);
+
+        writer.write(record(1));
+
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(writer::close)
+            .withCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test(timeout = 10000)
+    public void testWrite_ReportsErrorWithoutBlocking() {
+        final CouplingSink failingSink = new CouplingSink() {
+            @Override
+            public void write(final CouplingRecord couplingRecord) {
+                throw new OutOfMemoryError("Test");
+            }
+
+            @Override
+            public boolean close() {
+                return true;
+            }
+        };
+        final CouplingSink writer = new AsyncCouplingSink(failingSink, 2);
+
+        // The writer thread keeps draining the queue, and the failure is reported to the producer
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    writer.write(record(i));
+                }
+            })
+            .withCauseInstanceOf(OutOfMemoryError.class);
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(writer::close)
+            .withCauseInstanceOf(OutOfMemoryError.class);
+    }
+
+    private static CouplingRecord record(final int i) {
+        return new CouplingRecord.Builder()
+                   .appSetName("TestAppSet")
+                   .applicationName("TestApp")
+                   .artifactFileName("foo-1.0.0.jar")
+                   .artifactId("foo")
+                   .artifactGroup("com.vrbo.jarviz")
+                   .artifactVersion("1.0.0")
+                   .sourceClass("com.vrbo.jarviz.Foo")
+                   .sourceMethod("doThat" + i)
+                   .targetClass("com.vrbo.jarviz.Bar")
+                   .targetMethod("doThis")
+                   .build();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vrbo.jarviz.model.CouplingRecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BinaryCouplingRecordReaderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRead_SameAsWritten() throws IOException {
+        final List<CouplingRecord> records = createRecords();
+        final File file = writeRecords(records, "couplings.jbin");
+
+        try (BinaryCouplingRecordReader reader = BinaryCouplingRecordReader.open(file.getPath())) {
+            for (CouplingRecord record : records) {
+                assertThat(reader.read()).contains(record);
+            }
+            assertThat(reader.read()).isEmpty();
+        }
+    }
+
+    @Test
+    public void testStream_GzipFile() throws IOException {
+        final List<CouplingRecord> records = createRecords();
+        final File file = writeRecords(records, "couplings.jbin.gz");
+
+        try (Stream<CouplingRecord> stream = BinaryCouplingRecordReader.open(file.getPath()).stream()) {
+            assertThat(stream.collect(Collectors.toList())).isEqualTo(records);
+        }
+    }
+
+    @Test
+    public void testWrite_SmallerThanJson() throws IOException {
+        final List<CouplingRecord> records = createRecords();
+
+        final File binaryFile = writeRecords(records, "couplings.jbin");
+        final File jsonFile = writeRecords(records, "couplings.jsonl");
+
+        assertThat(binaryFile.length()).isLessThan(jsonFile.length() / 10);
+    }
+
+    @Test
+    public void testBinaryToJsonl() throws IOException {
+        final List<CouplingRecord> records = createRecords();
+        final File binaryFile = writeRecords(records, "couplings.jbin");
+        final File jsonFile = writeRecords(records, "expected.jsonl");
+        final File convertedFile = new File(temporaryFolder.getRoot(), "converted.jsonl");
+
+        assertThat(CouplingRecordConverter.binaryToJsonl(binaryFile.getPath(), convertedFile.getPath()))
+            .isEqualTo(records.size());
+        assertThat(Files.readAllLines(convertedFile.toPath())).isEqualTo(Files.readAllLines(jsonFile.toPath()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRead_NotBinaryFile() throws IOException {
+        new BinaryCouplingRecordReader(new ByteArrayInputStream("{\"appSetName\":\"Foo\"}".getBytes()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRead_TruncatedFile() throws IOException {
+        final File file = writeRecords(createRecords(), "couplings.jbin");
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+
+        try (BinaryCouplingRecordReader reader =
+                 new BinaryCouplingRecordReader(new ByteArrayInputStream(bytes, 0, bytes.length - 1))) {
+            while (reader.read().isPresent()) {
+                // Reads until the truncated record
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRead_NegativeStringReference() throws IOException {
+        // A 5 byte varint which overflows into -1
+        readRecord(0xff, 0xff, 0xff, 0xff, 0x0f);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRead_NegativeStringLength() throws IOException {
+        readRecord(BinaryCouplingRecordReader.NEW_STRING, 0xff, 0xff, 0xff, 0xff, 0x0f);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRead_HugeStringLength() throws IOException {
+        readRecord(BinaryCouplingRecordReader.NEW_STRING, 0xff, 0xff, 0xff, 0xff, 0x07);
+    }
+
+    /**
+     * Reads a record from the given bytes, after a valid header.
+     */
+    private static void readRecord(final int... recordBytes) throws IOException {
+        final byte[] bytes = new byte[BinaryCouplingRecordReader.MAGIC.length + 1 + recordBytes.length];
+        System.arraycopy(BinaryCouplingRecordReader.MAGIC, 0, bytes, 0, BinaryCouplingRecordReader.MAGIC.length);
+        bytes[BinaryCouplingRecordReader.MAGIC.length] = BinaryCouplingRecordReader.FORMAT_VERSION;
+        for (int i = 0; i < recordBytes.length; i++) {
+            bytes[BinaryCouplingRecordReader.MAGIC.length + 1 + i] = (byte) recordBytes[i];
+        }
+
+        try (BinaryCouplingRecordReader reader = new BinaryCouplingRecordReader(new ByteArrayInputStream(bytes))) {
+            reader.read();
+        }
+    }
+
+    private File writeRecords(final List<CouplingRecord> records, final String fileName) {
+        final File file = new File(temporaryFolder.getRoot(), fileName);
+        final CouplingSink writer = CouplingSinks.create(null, file.getPath());
+        records.forEach(writer::write);
+        writer.close();
+
+        return file;
+    }
+
+    private static List<CouplingRecord> createRecords() {
+        final List<CouplingRecord> records = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            records.add(new CouplingRecord.Builder()
+                            .appSetName("TestAppSet")
+                            .applicationName("TestApp" + (i % 3))
+                            .artifactFileName("foo-1.0.0.jar")
+                            .artifactId("foo")
+                            .artifactGroup("com.vrbo.jarviz")
+                            .artifactVersion("1.0.0")
+                            .sourceClass("com.vrbo.jarviz.Foo" + (i % 20))
+                            .sourceMethod(i % 7 == 0 ? "" : "doThat" + (i % 10))
+                            .targetClass("com.vrbo.jarviz.Bar" + (i % 5))
+                            .targetMethod("doThis" + (i % 200) + "é")
+                            .build());
+        }
+
+        return records;
+    }
+}
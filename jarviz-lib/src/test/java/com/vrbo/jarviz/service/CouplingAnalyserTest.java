@@ -0,0 +1,356 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.ByteStreams;
+import com.vrbo.jarviz.config.ClassParsingMode;
+import com.vrbo.jarviz.config.CouplingFilterConfig;
+import com.vrbo.jarviz.config.CouplingOrdering;
+import com.vrbo.jarviz.config.JarvizConfig;
+import com.vrbo.jarviz.model.Application;
+import com.vrbo.jarviz.model.ApplicationSet;
+import com.vrbo.jarviz.model.Artifact;
+import com.vrbo.jarviz.model.CouplingFilter;
+import com.vrbo.jarviz.model.CouplingRecord;
+import com.vrbo.jarviz.util.JsonUtils;
+import com.vrbo.jarviz.util.couplingtest.Bar;
+import com.vrbo.jarviz.util.couplingtest.Foo;
+import com.vrbo.jarviz.util.couplingtest.MySource;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CouplingAnalyserTest {
+
+    private static final Artifact ARTIFACT = new Artifact.Builder()
+                                                 .groupId("com.vrbo.jarviz")
+                                                 .artifactId("couplingtest")
+                                                 .version("1.0.0")
+                                                 .build();
+
+    private static final Artifact ARTIFACT_2 = new Artifact.Builder()
+                                                   .groupId("com.vrbo.jarviz")
+                                                   .artifactId("couplingtest")
+                                                   .version("2.0.0")
+                                                   .build();
+
+    private static final ApplicationSet APPLICATION_SET =
+        new ApplicationSet.Builder()
+            .appSetName("TestAppSet")
+            .addApplication(new Application.Builder().appName("TestApp").addArtifact(ARTIFACT).build())
+            .build();
+
+    private static final ApplicationSet MULTI_APPLICATION_SET =
+        new ApplicationSet.Builder()
+            .appSetName("TestAppSet")
+            .addApplication(new Application.Builder().appName("TestApp1").addArtifact(ARTIFACT).addArtifact(ARTIFACT_2).build())
+            .addApplication(new Application.Builder().appName("TestApp2").addArtifact(ARTIFACT_2).build())
+            .addApplication(new Application.Builder().appName("TestApp3").addArtifact(ARTIFACT).build())
+            .build();
+
+    private static final CouplingFilterConfig FILTER_CONFIG =
+        new CouplingFilterConfig.Builder()
+            .include(new CouplingFilter.Builder().targetPackage("com\\.vrbo\\.jarviz\\.util\\.couplingtest").build())
+            .build();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File artifactDirectory;
+
+    private File reportDirectory;
+
+    @Before
+    public void setup() throws IOException {
+        artifactDirectory = temporaryFolder.newFolder("artifacts");
+        reportDirectory = temporaryFolder.newFolder("reports");
+        createTestJar(ARTIFACT, 0);
+        createTestJar(ARTIFACT_2, 0);
+    }
+
+    @Test
+    public void testStart_ParallelOutputSameAsSequential() throws IOException {
+        final File sequentialReport = analyze(new JarvizConfig.Builder()
+                                                  .artifactDirectory(artifactDirectory.getPath())
+                                                  .build());
+        final File parallelReport = analyze(new JarvizConfig.Builder()
+                                                .artifactDirectory(artifactDirectory.getPath())
+                                                .analysisThreads(4)
+                                                .build());
+
+        assertThat(Files.readAllLines(sequentialReport.toPath())).hasSize(18);
+        assertThat(parallelReport).hasSameContentAs(sequentialReport);
+    }
+
+    @Test
+    public void testStart_ParsingModesHaveSameOutput() throws IOException {
+        final File fullReport = analyze(new JarvizConfig.Builder()
+                                            .artifactDirectory(artifactDirectory.getPath())
+                                            .classParsingMode(ClassParsingMode.FULL)
+                                            .build());
+        final File skipDebugReport = analyze(new JarvizConfig.Builder()
+                                                 .artifactDirectory(artifactDirectory.getPath())
+                                                 .classParsingMode(ClassParsingMode.SKIP_DEBUG_AND_FRAMES)
+                                                 .build());
+
+        assertThat(Files.readAllLines(fullReport.toPath())).hasSize(18);
+        assertThat(skipDebugReport).hasSameContentAs(fullReport);
+    }
+
+    @Test
+    public void testStart_CouplingOrderings() throws IOException {
+        final List<String> sortedLines = Files.readAllLines(analyze(new JarvizConfig.Builder()
+                                                                        .artifactDirectory(artifactDirectory.getPath())
+                                                                        .build()).toPath());
+
+        for (CouplingOrdering ordering : new CouplingOrdering[] {CouplingOrdering.UNORDERED, CouplingOrdering.CLASS}) {
+            final List<String> lines = Files.readAllLines(analyze(new JarvizConfig.Builder()
+                                                                      .artifactDirectory(artifactDirectory.getPath())
+                                                                      .analysisThreads(2)
+                                                                      .couplingOrdering(ordering)
+                                                                      .build()).toPath());
+
+            assertThat(lines).containsExactlyInAnyOrderElementsOf(sortedLines);
+        }
+    }
+
+    @Test
+    public void testStart_ParallelArtifactsOutputSameAsSequential() throws IOException {
+        final File sequentialReport = analyze(new JarvizConfig.Builder()
+                                                  .artifactDirectory(artifactDirectory.getPath())
+                                                  .build(),
+                                              MULTI_APPLICATION_SET);
+        final File parallelReport = analyze(new JarvizConfig.Builder()
+                                                .artifactDirectory(artifactDirectory.getPath())
+                                                .artifactThreads(3)
+                                                .analysisThreads(2)
+                                                .build(),
+                                            MULTI_APPLICATION_SET);
+        final File budgetedReport = analyze(new JarvizConfig.Builder()
+                                                .artifactDirectory(artifactDirectory.getPath())
+                                                .artifactThreads(3)
+                                                .analysisHeapBudgetMegabytes(1)
+                                                .writerQueueCapacity(4)
+                                                .build(),
+                                            MULTI_APPLICATION_SET);
+
+        final File prefetchedReport = analyze(new JarvizConfig.Builder()
+                                                  .artifactDirectory(artifactDirectory.getPath())
+                                                  .artifactThreads(3)
+                                                  .artifactPrefetchDepth(2)
+                                                  .artifactPrefetchDiskBudgetMegabytes(1)
+                                                  .build(),
+                                              MULTI_APPLICATION_SET);
+
+        final List<String> lines = Files.readAllLines(sequentialReport.toPath());
+        assertThat(lines).hasSize(18 * 4);
+        assertThat(lines.get(0)).contains("\"applicationName\":\"TestApp1\"", "\"artifactVersion\":\"1.0.0\"");
+        assertThat(lines.get(18)).contains("\"applicationName\":\"TestApp1\"", "\"artifactVersion\":\"2.0.0\"");
+        assertThat(lines.get(18 * 3)).contains("\"applicationName\":\"TestApp3\"");
+        assertThat(parallelReport).hasSameContentAs(sequentialReport);
+        assertThat(budgetedReport).hasSameContentAs(sequentialReport);
+        assertThat(prefetchedReport).hasSameContentAs(sequentialReport);
+    }
+
+    @Test
+    public void testStart_ArtifactCacheSmallerThanApplicationSet() throws IOException {
+        final File sequentialReport = analyze(new JarvizConfig.Builder()
+                                                  .artifactDirectory(artifactDirectory.getPath())
+                                                  .build(),
+                                              MULTI_APPLICATION_SET);
+
+        // Both artifacts do not fit into the 1 MB cache, but they are pinned until analyzed, so none is evicted
+        // (the artifacts cannot be fetched again)
+        createTestJar(ARTIFACT, 600 * 1024);
+        createTestJar(ARTIFACT_2, 600 * 1024);
+        final File cachedReport = analyze(new JarvizConfig.Builder()
+                                              .artifactDirectory(artifactDirectory.getPath())
+                                              .artifactCacheMaxMegabytes(1)
+                                              .artifactThreads(2)
+                                              .localRepositories(Collections.emptyList())
+                                              .build(),
+                                          MULTI_APPLICATION_SET);
+
+        assertThat(cachedReport).hasSameContentAs(sequentialReport);
+        assertThat(new File(artifactDirectory, ARTIFACT.toFileName())).exists();
+        assertThat(new File(artifactDirectory, ARTIFACT_2.toFileName())).exists();
+        assertThat(artifactDirectory.list()).noneMatch(name -> name.startsWith(ArtifactCache.PIN_FILE_PREFIX));
+    }
+
+    @Test
+    public void testStart_MissingArtifactFetchedOnce() throws IOException {
+        final Artifact missingArtifact = new Artifact.Builder()
+                                             .groupId("com.vrbo.jarviz")
+                                             .artifactId("missing")
+                                             .version("1.0.0")
+                                             .build();
+        final ApplicationSet applicationSet =
+            new ApplicationSet.Builder()
+                .appSetName("TestAppSet")
+                .addApplication(new Application.Builder().appName("TestApp").addArtifact(missingArtifact).addArtifact(ARTIFACT).build())
+                .build();
+        final Logger logger = (Logger) LoggerFactory.getLogger(MavenArtifactDiscoveryService.class);
+        final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        try {
+            final File report = analyze(new JarvizConfig.Builder()
+                                            .artifactDirectory(artifactDirectory.getPath())
+                                            .artifactPrefetchDepth(2)
+                                            .continueOnMavenError(true)
+                                            .localRepositories(Collections.emptyList())
+                                            .build(),
+                                        applicationSet);
+
+            // The prefetcher and the class loader service share the discovery service, which does not run Maven
+            // again for the artifact it could not fetch
+            assertThat(appender.list).filteredOn(e -> e.getFormattedMessage().startsWith("Maven: fetching artifact"))
+                                     .hasSize(1);
+            assertThat(report).hasSameContentAs(analyze(new JarvizConfig.Builder()
+                                                            .artifactDirectory(artifactDirectory.getPath())
+                                                            .build()));
+        } finally {
+            logger.detachAppender(appender);
+        }
+    }
+
+    @Test
+    public void testStart_ArtifactShardsSameAsSequential() throws IOException {
+        for (String extension : new String[] {".jsonl", ".csv"}) {
+            final File sequentialReport = analyze(new JarvizConfig.Builder()
+                                                      .artifactDirectory(artifactDirectory.getPath())
+                                                      .build(),
+                                                  MULTI_APPLICATION_SET,
+                                                  extension);
+            final File shardedReport = analyze(new JarvizConfig.Builder()
+                                                   .artifactDirectory(artifactDirectory.getPath())
+                                                   .artifactThreads(3)
+                                                   .writeArtifactShards(true)
+                                                   .build(),
+                                               MULTI_APPLICATION_SET,
+                                               extension);
+
+            assertThat(shardedReport).hasSameContentAs(sequentialReport);
+            assertThat(reportDirectory.list()).allMatch(name -> !name.startsWith(".jarviz-shards-"));
+        }
+    }
+
+    @Test
+    public void testStart_CustomSink() throws IOException {
+        final JarvizConfig config = new JarvizConfig.Builder()
+                                        .artifactDirectory(artifactDirectory.getPath())
+                                        .writerQueueCapacity(4)
+                                        .build();
+        final File report = analyze(config, MULTI_APPLICATION_SET);
+        final TestCouplingSinkProvider.ListCouplingSink sink = new TestCouplingSinkProvider.ListCouplingSink();
+
+        new CouplingAnalyser().start(config, MULTI_APPLICATION_SET, FILTER_CONFIG, sink);
+
+        assertThat(sink.closed).isTrue();
+        assertThat(sink.records.stream().map(JsonUtils::toJsonString).collect(Collectors.toList()))
+            .isEqualTo(Files.readAllLines(report.toPath()));
+    }
+
+    @Test
+    public void testStream_SameAsReport() throws IOException {
+        final JarvizConfig config = new JarvizConfig.Builder()
+                                        .artifactDirectory(artifactDirectory.getPath())
+                                        .artifactThreads(3)
+                                        .analysisHeapBudgetMegabytes(1)
+                                        .build();
+        final File report = analyze(config, MULTI_APPLICATION_SET);
+
+        try (Stream<CouplingRecord> records = new CouplingAnalyser().stream(config, MULTI_APPLICATION_SET, FILTER_CONFIG)) {
+            assertThat(records.map(JsonUtils::toJsonString).collect(Collectors.toList()))
+                .isEqualTo(Files.readAllLines(report.toPath()));
+        }
+    }
+
+    @Test
+    public void testStream_PartiallyConsumed() {
+        final JarvizConfig config = new JarvizConfig.Builder()
+                                        .artifactDirectory(artifactDirectory.getPath())
+                                        .artifactThreads(2)
+                                        .build();
+
+        try (Stream<CouplingRecord> records = new CouplingAnalyser().stream(config, MULTI_APPLICATION_SET, FILTER_CONFIG)) {
+            assertThat(records.limit(20).map(CouplingRecord::getApplicationName).distinct())
+                .containsExactly("TestApp1");
+        }
+    }
+
+    private File analyze(final JarvizConfig config) throws IOException {
+        return analyze(config, APPLICATION_SET);
+    }
+
+    private File analyze(final JarvizConfig config, final ApplicationSet applicationSet) throws IOException {
+        return analyze(config, applicationSet, ".jsonl");
+    }
+
+    private File analyze(final JarvizConfig config,
+                         final ApplicationSet applicationSet,
+                         final String extension) throws IOException {
+        final File reportFile = File.createTempFile("report", extension, reportDirectory);
+        new CouplingAnalyser().start(config, applicationSet, FILTER_CONFIG, reportFile.getPath());
+        return reportFile;
+    }
+
+    private void createTestJar(final Artifact artifact, final int paddingBytes) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(new File(artifactDirectory, artifact.toFileName())))) {
+            writeClassEntry(out, MySource.class);
+            writeClassEntry(out, Foo.class);
+            writeClassEntry(out, Bar.class);
+            if (paddingBytes > 0) {
+                // Random bytes, which are not compressed
+                final byte[] padding = new byte[paddingBytes];
+                new Random(0).nextBytes(padding);
+                out.putNextEntry(new ZipEntry("padding.bin"));
+                out.write(padding);
+            }
+        }
+    }
+
+    private static void writeClassEntry(final ZipOutputStream out, final Class<?> clazz) throws IOException {
+        final String resourceName = clazz.getName().replace('.', '/') + ".class";
+        out.putNextEntry(new ZipEntry(resourceName));
+        try (InputStream in = clazz.getClassLoader().getResourceAsStream(resourceName)) {
+            out.write(ByteStreams.toByteArray(in));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.ByteStreams;
+import com.vrbo.jarviz.model.CouplingRecord;
+import com.vrbo.jarviz.util.JsonUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CouplingRecordWriterTest {
+
+    private static final CouplingRecord RECORD = new CouplingRecord.Builder()
+                                                     .appSetName("TestAppSet")
+                                                     .applicationName("TestApp")
+                                                     .artifactFileName("foo-1.0.0.jar")
+                                                     .artifactId("foo")
+                                                     .artifactGroup("com.vrbo.jarviz")
+                                                     .artifactVersion("1.0.0")
+                                                     .sourceClass("com.vrbo.jarviz.Foo")
+                                                     .sourceMethod("<init>")
+                                                     .targetClass("com.vrbo.jarviz.Bar$Baz")
+                                                     .targetMethod("lambda$doThat$0")
+                                                     .build();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAsJson_SameAsJsonUtils() throws IOException {
+        final CouplingRecord recordWithEmptyFields = new CouplingRecord.Builder()
+                                                         .from(RECORD)
+                                                         .applicationName("")
+                                                         .sourceMethod("\"quoted\" é\t")
+                                                         .build();
+        final File file = temporaryFolder.newFile();
+
+        final CouplingRecordWriter writer = new CouplingRecordWriter(file.getPath());
+        writer.write(RECORD);
+        writer.write(recordWithEmptyFields);
+        assertThat(writer.close()).isTrue();
+
+        assertThat(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8))
+            .containsExactly(JsonUtils.toJsonString(RECORD), JsonUtils.toJsonString(recordWithEmptyFields));
+        assertThat(JsonUtils.fromJsonString(Files.readAllLines(file.toPath()).get(0), CouplingRecord.class))
+            .isEqualTo(RECORD);
+    }
+
+    @Test
+    public void testWriteAsJson_GzipFile() throws IOException {
+        final File file = temporaryFolder.newFile();
+        final File gzipFile = new File(temporaryFolder.getRoot(), "result.jsonl.gz");
+
+        final CouplingRecordWriter writer = new CouplingRecordWriter(file.getPath());
+        final CouplingRecordWriter gzipWriter = new CouplingRecordWriter(gzipFile.getPath());
+        for (int i = 0; i < 10_000; i++) {
+            final CouplingRecord record = new CouplingRecord.Builder().from(RECORD).targetMethod("method" + i).build();
+            writer.write(record);
+            gzipWriter.write(record);
+        }
+        assertThat(writer.close()).isTrue();
+        assertThat(gzipWriter.close()).isTrue();
+
+        assertThat(gzipFile.length()).isLessThan(file.length() / 10);
+        try (InputStream in = new GZIPInputStream(new FileInputStream(gzipFile))) {
+            assertThat(ByteStreams.toByteArray(in)).isEqualTo(Files.readAllBytes(file.toPath()));
+        }
+    }
+
+    @Test
+    public void testClose_NothingWritten() throws IOException {
+        final File file = new File(temporaryFolder.getRoot(), "empty.jsonl");
+
+        assertThat(new CouplingRecordWriter(file.getPath()).close()).isFalse();
+        assertThat(file).doesNotExist();
+    }
+}
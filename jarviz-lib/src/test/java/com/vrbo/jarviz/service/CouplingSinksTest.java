@@ -0,0 +1,123 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vrbo.jarviz.model.CouplingRecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class CouplingSinksTest {
+
+    private static final CouplingRecord RECORD = new CouplingRecord.Builder()
+                                                     .appSetName("TestAppSet")
+                                                     .applicationName("")
+                                                     .artifactFileName("foo-1.0.0.jar")
+                                                     .artifactId("foo")
+                                                     .artifactGroup("com.vrbo.jarviz")
+                                                     .artifactVersion("1.0.0")
+                                                     .sourceClass("com.vrbo.jarviz.Foo")
+                                                     .sourceMethod("say,\"hi\"")
+                                                     .targetClass("com.vrbo.jarviz.Bar")
+                                                     .targetMethod("lambda$doThat$0")
+                                                     .build();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testFormatOf() {
+        assertThat(CouplingSinks.formatOf("result.jsonl")).isEqualTo(CouplingSinks.JSONL);
+        assertThat(CouplingSinks.formatOf("result.jsonl.gz")).isEqualTo(CouplingSinks.JSONL);
+        assertThat(CouplingSinks.formatOf("result")).isEqualTo(CouplingSinks.JSONL);
+        assertThat(CouplingSinks.formatOf("result.csv.gz")).isEqualTo(CouplingSinks.CSV);
+        assertThat(CouplingSinks.formatOf("result.jbin")).isEqualTo(CouplingSinks.BINARY);
+        assertThat(CouplingSinks.formatOf("result.graph.json.gz")).isEqualTo(CouplingSinks.GRAPH);
+    }
+
+    @Test
+    public void testCreate_BuiltInFormats() {
+        assertThat(CouplingSinks.create(null, "result.jsonl")).isInstanceOf(CouplingRecordWriter.class);
+        assertThat(CouplingSinks.create(null, "result.csv")).isInstanceOf(CsvCouplingRecordWriter.class);
+        assertThat(CouplingSinks.create(null, "result.jbin.gz")).isInstanceOf(BinaryCouplingRecordWriter.class);
+        assertThat(CouplingSinks.create(CouplingSinks.CSV, "result.jsonl")).isInstanceOf(CsvCouplingRecordWriter.class);
+    }
+
+    @Test
+    public void testCreate_CustomFormat() {
+        assertThat(CouplingSinks.create(TestCouplingSinkProvider.NAME, "unused"))
+            .isInstanceOf(TestCouplingSinkProvider.ListCouplingSink.class);
+        assertThat(CouplingSinks.create(TestCouplingSinkProvider.class.getName(), "unused"))
+            .isInstanceOf(TestCouplingSinkProvider.ListCouplingSink.class);
+    }
+
+    @Test
+    public void testCreate_UnknownFormat() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> CouplingSinks.create("xml", "result.xml"))
+            .withMessage("Unknown output format: xml");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> CouplingSinks.create(String.class.getName(), "result.xml"));
+    }
+
+    @Test
+    public void testCsvCouplingRecordWriter() throws IOException {
+        final File file = new File(temporaryFolder.getRoot(), "result.csv");
+
+        final CouplingSink sink = CouplingSinks.create(null, file.getPath());
+        sink.write(RECORD);
+        assertThat(sink.close()).isTrue();
+
+        assertThat(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8))
+            .isEqualTo(CsvCouplingRecordWriter.HEADER + "\r\n" +
+                       "TestAppSet,,foo-1.0.0.jar,foo,com.vrbo.jarviz,1.0.0,com.vrbo.jarviz.Foo,\"say,\"\"hi\"\"\"," +
+                       "com.vrbo.jarviz.Bar,lambda$doThat$0\r\n");
+    }
+
+    @Test
+    public void testFileCouplingSink_ClosedWhenOpenFails() {
+        final AtomicReference<OutputStream> openedStream = new AtomicReference<>();
+        final CouplingSink sink = new FileCouplingSink(new File(temporaryFolder.getRoot(), "result.jsonl.gz").getPath()) {
+            @Override
+            protected void open(final OutputStream out) throws IOException {
+                openedStream.set(out);
+                throw new IOException("Unable to write the header");
+            }
+
+            @Override
+            protected void writeRecord(final CouplingRecord couplingRecord) {}
+        };
+
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> sink.write(RECORD));
+        // The file and the gzip compression are closed
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> {
+            openedStream.get().write(1);
+            openedStream.get().flush();
+        });
+    }
+}
@@ -0,0 +1,161 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.glassfish.hk2.api.ServiceLocator;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vrbo.jarviz.config.ArtifactResolution;
+import com.vrbo.jarviz.config.JarvizConfig;
+import com.vrbo.jarviz.model.Artifact;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class EmbeddedArtifactDiscoveryServiceTest {
+
+    private static final Artifact FOO = new Artifact.Builder().groupId("com.vrbo.jarviz").artifactId("foo").version("1.0.0").build();
+
+    private static final Artifact BAR = new Artifact.Builder().groupId("com.vrbo.jarviz").artifactId("bar").version("2.0.0").build();
+
+    private static final Artifact MISSING =
+        new Artifact.Builder().groupId("com.vrbo.jarviz").artifactId("missing").version("1.0.0").build();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File artifactDirectory;
+
+    private File localRepository;
+
+    private File remoteRepository;
+
+    @Before
+    public void setup() throws IOException {
+        artifactDirectory = temporaryFolder.newFolder("artifacts");
+        localRepository = temporaryFolder.newFolder("local");
+        remoteRepository = temporaryFolder.newFolder("remote");
+        deploy(FOO);
+        deploy(BAR);
+    }
+
+    @Test
+    public void testDiscoverArtifact_FromRemoteRepository() throws ArtifactNotFoundException, IOException {
+        final File file = createService(false).discoverArtifact(FOO);
+
+        assertThat(file).isEqualTo(new File(artifactDirectory, FOO.toFileName()));
+        assertThat(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)).isEqualTo(FOO.toMavenId());
+        // Downloaded into the local repository as well
+        assertThat(new File(localRepository, "com/vrbo/jarviz/foo/1.0.0/foo-1.0.0.jar")).exists();
+    }
+
+    @Test
+    public void testDiscoverArtifact_FromLocalRepository() throws ArtifactNotFoundException {
+        final File repositoryFile = new File(localRepository, "com/vrbo/jarviz/foo/1.0.0/foo-1.0.0.jar");
+        createService(false).resolveArtifacts(Collections.singletonList(FOO));
+        assertThat(new File(artifactDirectory, FOO.toFileName()).delete()).isTrue();
+
+        // Read in place from the local repository, without copying it again
+        assertThat(createService(false).discoverArtifact(FOO)).isEqualTo(repositoryFile);
+        assertThat(artifactDirectory.list()).isEmpty();
+    }
+
+    @Test
+    public void testResolveArtifacts() {
+        createService(true).resolveArtifacts(Arrays.asList(FOO, BAR, MISSING, FOO));
+
+        assertThat(artifactDirectory.list()).containsExactlyInAnyOrder(FOO.toFileName(), BAR.toFileName());
+    }
+
+    @Test
+    public void testDiscoverArtifact_RecordedInArtifactCache() throws ArtifactNotFoundException, IOException {
+        final EmbeddedArtifactDiscoveryService service =
+            new EmbeddedArtifactDiscoveryService(new JarvizConfig.Builder()
+                                                     .artifactDirectory(artifactDirectory.getPath())
+                                                     .artifactCacheMaxMegabytes(1)
+                                                     .mavenLocalRepository(localRepository.getPath())
+                                                     .addMavenRemoteRepositories(remoteRepository.toURI().toString())
+                                                     .build());
+
+        service.resolveArtifacts(Collections.singletonList(BAR));
+        service.discoverArtifact(FOO);
+
+        assertThat(Files.readAllLines(new File(artifactDirectory, ArtifactCache.INDEX_FILE_NAME).toPath()))
+            .extracting(line -> line.split("\t")[1])
+            .containsExactly(BAR.toMavenId(), FOO.toMavenId());
+    }
+
+    @Test
+    public void testDiscoverArtifact_Missing() throws ArtifactNotFoundException {
+        assertThatExceptionOfType(ArtifactNotFoundException.class)
+            .isThrownBy(() -> createService(false).discoverArtifact(MISSING))
+            .withMessage("Unable to fetch the artifact com.vrbo.jarviz:missing:1.0.0:jar from Maven repository");
+
+        assertThat(createService(true).discoverArtifact(MISSING)).doesNotExist();
+    }
+
+    @Test
+    public void testServiceLocator_SingletonShutDown() {
+        final ServiceLocator serviceLocator =
+            JarvizServiceLocator.createServiceLocator(new JarvizConfig.Builder()
+                                                          .artifactDirectory(artifactDirectory.getPath())
+                                                          .artifactResolution(ArtifactResolution.EMBEDDED)
+                                                          .mavenLocalRepository(localRepository.getPath())
+                                                          .addMavenRemoteRepositories(remoteRepository.toURI().toString())
+                                                          .build(),
+                                                      "EmbeddedArtifactDiscoveryServiceTest");
+        final ArtifactDiscoveryService service = serviceLocator.getService(ArtifactDiscoveryService.class);
+        assertThat(service).isInstanceOf(EmbeddedArtifactDiscoveryService.class)
+                           .isSameAs(serviceLocator.getService(ArtifactDiscoveryService.class));
+
+        serviceLocator.shutdown();
+
+        // The repository system is shut down with the locator
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> service.discoverArtifact(FOO));
+    }
+
+    private EmbeddedArtifactDiscoveryService createService(final boolean continueOnMavenError) {
+        return new EmbeddedArtifactDiscoveryService(new JarvizConfig.Builder()
+                                                        .artifactDirectory(artifactDirectory.getPath())
+                                                        .mavenLocalRepository(localRepository.getPath())
+                                                        .addMavenRemoteRepositories(remoteRepository.toURI().toString())
+                                                        .continueOnMavenError(continueOnMavenError)
+                                                        .build());
+    }
+
+    /**
+     * Writes a fake artifact file into the remote repository, with the standard Maven layout.
+     */
+    private void deploy(final Artifact artifact) throws IOException {
+        final File directory = new File(remoteRepository, String.format("%s/%s/%s",
+                                                                        artifact.getGroupId().replace('.', '/'),
+                                                                        artifact.getArtifactId(),
+                                                                        artifact.getVersion()));
+        Files.createDirectories(directory.toPath());
+        Files.write(new File(directory, artifact.toFileName()).toPath(), artifact.toMavenId().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vrbo.jarviz.model.CouplingRecord;
+import com.vrbo.jarviz.util.JsonUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GraphDataWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWrite_AggregatesNodesAndLinks() throws IOException {
+        final File graphFile = new File(temporaryFolder.getRoot(), "result" + GraphDataWriter.FILE_EXTENSION);
+        final GraphDataWriter writer = new GraphDataWriter(graphFile.getPath());
+        writer.write(record("App1", "foo", "Foo", "run", "doThis"));
+        writer.write(record("App1", "foo", "Foo", "run", "doThis"));
+        writer.write(record("App1", "foo", "Foo", "stop", "doThat"));
+        writer.write(record("App2", "bar", "Bar<T>", "run", "doThis"));
+        assertThat(writer.close()).isTrue();
+
+        final JsonNode graph = JsonUtils.OBJECT_MAPPER.readTree(graphFile);
+        assertThat(graph.get("recordCount").asInt()).isEqualTo(4);
+        assertThat(graph.get("applicationNames")).extracting(JsonNode::asText).containsExactly("App1", "App2");
+
+        final JsonNode sourceClass = graph.get("data").get("sourceClass");
+        assertThat(sourceClass.get("nodes")).extracting(node -> node.get("id").asText())
+                                            .containsExactly("com.foo_foo",
+                                                             "App1_com.Target_doThis",
+                                                             "App1_com.Target_doThat",
+                                                             "com.foo_bar",
+                                                             "App2_com.Target_doThis");
+
+        final JsonNode artifactNode = sourceClass.get("nodes").get(0);
+        assertThat(artifactNode.get("target").asBoolean()).isFalse();
+        assertThat(artifactNode.get("applicationName").asText()).isEqualTo("App1");
+        assertThat(artifactNode.get("artifact").asText()).isEqualTo("com.foo.foo");
+        assertThat(artifactNode.get("couplingMethodUsages")).extracting(JsonNode::asText)
+                                                            .containsExactly("Foo#run (x2)", "Foo#stop");
+        assertThat(artifactNode.get("couplingLinkMap").get("App1_com.Target_doThis"))
+            .extracting(JsonNode::asText)
+            .containsExactly("Foo#run");
+
+        final JsonNode barNode = sourceClass.get("nodes").get(3);
+        assertThat(barNode.get("couplingMethodUsages").get(0).asText()).isEqualTo("Bar&lt;T&gt;#run");
+
+        final JsonNode targetNode = sourceClass.get("nodes").get(1);
+        assertThat(targetNode.get("target").asBoolean()).isTrue();
+        assertThat(targetNode.get("couplingClass").asText()).isEqualTo("com.Target");
+        assertThat(targetNode.get("couplingMethodUsages")).extracting(JsonNode::asText)
+                                                          .containsExactly("com.Target#doThis (x2)");
+
+        assertThat(sourceClass.get("links")).hasSize(3);
+        assertThat(sourceClass.get("links").get(0).get("weight").asInt()).isEqualTo(2);
+
+        final JsonNode targetClass = graph.get("data").get("sourceClass-targetClass");
+        assertThat(targetClass.get("nodes")).extracting(node -> node.get("id").asText())
+                                            .containsExactly("com.Target_com.foo_foo",
+                                                             "com.Target_doThis",
+                                                             "com.Target_doThat",
+                                                             "com.Target_com.foo_bar");
+        assertThat(targetClass.get("links")).extracting(link -> link.get("weight").asInt())
+                                            .containsExactly(2, 1, 1);
+    }
+
+    @Test
+    public void testEscapeHtml() {
+        assertThat(GraphDataWriter.escapeHtml("<a href=\"x\">'&'</a>"))
+            .isEqualTo("&lt;a href=&quot;x&quot;&gt;&#039;&amp;&#039;&lt;/a&gt;");
+    }
+
+    private static CouplingRecord record(final String applicationName,
+                                         final String artifactId,
+                                         final String sourceClass,
+                                         final String sourceMethod,
+                                         final String targetMethod) {
+        return new CouplingRecord.Builder()
+                   .appSetName("TestAppSet")
+                   .applicationName(applicationName)
+                   .artifactFileName(artifactId + "-1.0.0.jar")
+                   .artifactId(artifactId)
+                   .artifactGroup("com.foo")
+                   .artifactVersion("1.0.0")
+                   .sourceClass(sourceClass)
+                   .sourceMethod(sourceMethod)
+                   .targetClass("com.Target")
+                   .targetMethod(targetMethod)
+                   .build();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vrbo.jarviz.model.Artifact;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LocalRepositoryLookupTest {
+
+    private static final Artifact RELEASE = new Artifact.Builder().groupId("com.vrbo.jarviz").artifactId("foo").version("1.0.0").build();
+
+    private static final Artifact SNAPSHOT = new Artifact.Builder()
+                                                 .groupId("com.vrbo.jarviz")
+                                                 .artifactId("foo")
+                                                 .version("2.0.0-20200708.191052-12")
+                                                 .baseVersion("2.0.0-SNAPSHOT")
+                                                 .build();
+
+    private static final Artifact LATEST = new Artifact.Builder().groupId("com.vrbo.jarviz").artifactId("foo").version("LATEST").build();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File repository1;
+
+    private File repository2;
+
+    @Before
+    public void setup() throws IOException {
+        repository1 = temporaryFolder.newFolder("repository1");
+        repository2 = temporaryFolder.newFolder("repository2");
+    }
+
+    @Test
+    public void testFind() throws IOException {
+        final File release = createFile(repository2, "com/vrbo/jarviz/foo/1.0.0/foo-1.0.0.jar");
+        final File snapshot = createFile(repository2, "com/vrbo/jarviz/foo/2.0.0-SNAPSHOT/foo-2.0.0-20200708.191052-12.jar");
+        createFile(repository2, "com/vrbo/jarviz/foo/LATEST/foo.jar");
+        final LocalRepositoryLookup lookup = new LocalRepositoryLookup(Arrays.asList(repository1.getPath(), repository2.getPath()));
+
+        assertThat(lookup.find(RELEASE)).contains(release);
+        assertThat(lookup.find(SNAPSHOT)).contains(snapshot);
+        assertThat(lookup.find(LATEST)).isEmpty();
+
+        final File firstRelease = createFile(repository1, "com/vrbo/jarviz/foo/1.0.0/foo-1.0.0.jar");
+        assertThat(lookup.find(RELEASE)).contains(firstRelease);
+    }
+
+    @Test
+    public void testFind_NoRepositories() throws IOException {
+        createFile(repository1, "com/vrbo/jarviz/foo/1.0.0/foo-1.0.0.jar");
+
+        assertThat(new LocalRepositoryLookup(Collections.emptyList()).find(RELEASE)).isEmpty();
+    }
+
+    private static File createFile(final File repository, final String path) throws IOException {
+        final File file = new File(repository, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), new byte[] {1});
+        return file;
+    }
+}
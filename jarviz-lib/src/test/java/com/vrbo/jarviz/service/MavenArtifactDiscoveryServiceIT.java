@@ -17,6 +17,10 @@
 package com.vrbo.jarviz.service;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -50,6 +54,30 @@ public class MavenArtifactDiscoveryServiceIT {
         assertThat(file).exists();
     }
 
+    @Test
+    public void testResolveArtifacts_Batch() throws Exception {
+        final Path artifactDirectory = Files.createTempDirectory("jarviz-it-");
+        final MavenArtifactDiscoveryService batchDiscoveryService = new MavenArtifactDiscoveryService(
+            new JarvizConfig.Builder()
+                .artifactDirectory(artifactDirectory.toString())
+                .localRepositories(Collections.emptyList())
+                .mavenBatchSize(2)
+                .build());
+        final Artifact asm = new Artifact.Builder().groupId("org.ow2.asm").artifactId("asm").version("7.1").build();
+        final Artifact asmTree = new Artifact.Builder().groupId("org.ow2.asm").artifactId("asm-tree").version("7.1").build();
+        final Artifact invalid = new Artifact.Builder()
+                                     .groupId("__my_invalid_group__")
+                                     .artifactId("__my_invalid_artifact__")
+                                     .version("0")
+                                     .build();
+
+        batchDiscoveryService.resolveArtifacts(Arrays.asList(asm, asmTree, invalid));
+
+        assertThat(artifactDirectory.resolve(asm.toFileName())).exists();
+        assertThat(artifactDirectory.resolve(asmTree.toFileName())).exists();
+        assertThat(artifactDirectory.resolve(invalid.toFileName())).doesNotExist();
+    }
+
     @Test(expected = ArtifactNotFoundException.class)
     public void testDiscoverArtifact_Fail() throws ArtifactNotFoundException {
         final Artifact artifact = new Artifact.Builder()
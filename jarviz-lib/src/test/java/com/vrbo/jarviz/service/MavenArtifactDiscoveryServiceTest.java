@@ -0,0 +1,94 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.vrbo.jarviz.model.Artifact;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenArtifactDiscoveryServiceTest {
+
+    @Test
+    public void testToBatchPom() {
+        final Artifact classifierArtifact = new Artifact.Builder()
+                                                .groupId("com.vrbo.jarviz")
+                                                .artifactId("foo")
+                                                .version("1.0.0")
+                                                .classifier("tests")
+                                                .build();
+        final Artifact snapshotArtifact = new Artifact.Builder()
+                                              .groupId("com.vrbo.jarviz")
+                                              .artifactId("bar")
+                                              .version("2.0.1-20200708.191052-38")
+                                              .baseVersion("2.0.1-SNAPSHOT")
+                                              .build();
+        final Artifact latestArtifact = new Artifact.Builder()
+                                            .groupId("com.vrbo.jarviz")
+                                            .artifactId("baz")
+                                            .version("LATEST")
+                                            .packaging("war")
+                                            .build();
+        final Artifact releaseArtifact = new Artifact.Builder()
+                                             .groupId("com.vrbo.jarviz")
+                                             .artifactId("qux")
+                                             .version("RELEASE")
+                                             .build();
+
+        final String pom = MavenArtifactDiscoveryService.toBatchPom(
+            Arrays.asList(classifierArtifact, snapshotArtifact, latestArtifact, releaseArtifact), "/tmp/jarviz & co");
+
+        assertThat(pom).contains("        <artifactId>maven-dependency-plugin</artifactId>\n" +
+                                 "        <version>3.1.1</version>\n")
+                       .contains("<outputDirectory>" + new File("/tmp/jarviz &amp; co").getAbsolutePath() + "</outputDirectory>")
+                       .contains("            <artifactItem>\n" +
+                                 "              <groupId>com.vrbo.jarviz</groupId>\n" +
+                                 "              <artifactId>foo</artifactId>\n" +
+                                 "              <version>1.0.0</version>\n" +
+                                 "              <type>jar</type>\n" +
+                                 "              <classifier>tests</classifier>\n" +
+                                 "              <destFileName>foo-1.0.0-tests.jar</destFileName>\n" +
+                                 "            </artifactItem>\n")
+                       // The snapshot is resolved by its base version, but copied under the file name of its version
+                       .contains("            <artifactItem>\n" +
+                                 "              <groupId>com.vrbo.jarviz</groupId>\n" +
+                                 "              <artifactId>bar</artifactId>\n" +
+                                 "              <version>2.0.1-SNAPSHOT</version>\n" +
+                                 "              <type>jar</type>\n" +
+                                 "              <destFileName>bar-2.0.1-20200708.191052-38.jar</destFileName>\n" +
+                                 "            </artifactItem>\n")
+                       // LATEST and RELEASE are copied without the version in the file name
+                       .contains("            <artifactItem>\n" +
+                                 "              <groupId>com.vrbo.jarviz</groupId>\n" +
+                                 "              <artifactId>baz</artifactId>\n" +
+                                 "              <version>LATEST</version>\n" +
+                                 "              <type>war</type>\n" +
+                                 "              <destFileName>baz.war</destFileName>\n" +
+                                 "            </artifactItem>\n")
+                       .contains("            <artifactItem>\n" +
+                                 "              <groupId>com.vrbo.jarviz</groupId>\n" +
+                                 "              <artifactId>qux</artifactId>\n" +
+                                 "              <version>RELEASE</version>\n" +
+                                 "              <type>jar</type>\n" +
+                                 "              <destFileName>qux.jar</destFileName>\n" +
+                                 "            </artifactItem>\n");
+    }
+}
@@ -0,0 +1,138 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vrbo.jarviz.config.OutputSharding;
+import com.vrbo.jarviz.model.CouplingRecord;
+import com.vrbo.jarviz.model.OutputManifest;
+import com.vrbo.jarviz.model.OutputShard;
+import com.vrbo.jarviz.util.JsonUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class ShardedCouplingSinkTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWrite_ByApplication() throws IOException {
+        final File reportFile = new File(temporaryFolder.getRoot(), "result.jsonl");
+
+        final ShardedCouplingSink sink = new ShardedCouplingSink(reportFile.getPath(), CouplingSinks.JSONL,
+                                                                 OutputSharding.APPLICATION, Long.MAX_VALUE);
+        for (int i = 0; i < 30; i++) {
+            sink.write(record(i < 10 ? "App 1" : i < 25 ? "App/2" : "App3", i));
+        }
+        assertThat(sink.close()).isTrue();
+
+        final OutputManifest manifest = readManifest(sink.getManifestFile());
+        assertThat(manifest.getFormat()).isEqualTo(CouplingSinks.JSONL);
+        assertThat(manifest.getShards()).extracting(OutputShard::getFileName)
+                                        .containsExactly("result-00000-App_1.jsonl",
+                                                         "result-00001-App_2.jsonl",
+                                                         "result-00002-App3.jsonl");
+        assertThat(manifest.getShards()).extracting(s -> s.getApplicationName().get())
+                                        .containsExactly("App 1", "App/2", "App3");
+        assertThat(manifest.getShards()).extracting(OutputShard::getRecordCount).containsExactly(10L, 15L, 5L);
+        for (OutputShard shard : manifest.getShards()) {
+            final File shardFile = new File(temporaryFolder.getRoot(), shard.getFileName());
+            assertThat(shardFile.length()).isEqualTo(shard.getByteCount());
+            assertThat(Files.readAllLines(shardFile.toPath())).hasSize((int) shard.getRecordCount());
+        }
+    }
+
+    @Test
+    public void testWrite_BySize() throws IOException {
+        final File singleFile = new File(temporaryFolder.getRoot(), "single.jsonl");
+        final File reportFile = new File(temporaryFolder.getRoot(), "result.jsonl");
+
+        final CouplingSink singleSink = new CouplingRecordWriter(singleFile.getPath());
+        final ShardedCouplingSink sink = new ShardedCouplingSink(reportFile.getPath(), CouplingSinks.JSONL,
+                                                                 OutputSharding.SIZE, 20_000);
+        for (int i = 0; i < 1000; i++) {
+            singleSink.write(record("App", i));
+            sink.write(record("App", i));
+        }
+        singleSink.close();
+        sink.close();
+
+        final List<OutputShard> shards = readManifest(sink.getManifestFile()).getShards();
+        assertThat(shards.size()).isGreaterThan(1);
+        assertThat(shards.get(0).getFileName()).isEqualTo("result-00000.jsonl");
+        assertThat(shards.get(0).getApplicationName()).isEmpty();
+        assertThat(shards.subList(0, shards.size() - 1)).allMatch(s -> s.getByteCount() >= 20_000);
+        // Overshoots by up to one record and the 8 KB buffered by the JSON generator
+        assertThat(shards).allMatch(s -> s.getByteCount() < 20_000 + 8 * 1024 + 1024);
+        assertThat(shards.stream().mapToLong(OutputShard::getRecordCount).sum()).isEqualTo(1000);
+
+        final List<String> lines = new ArrayList<>();
+        for (OutputShard shard : shards) {
+            lines.addAll(Files.readAllLines(new File(temporaryFolder.getRoot(), shard.getFileName()).toPath()));
+        }
+        assertThat(lines).isEqualTo(Files.readAllLines(singleFile.toPath()));
+    }
+
+    @Test
+    public void testCreate_GraphBySize() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new ShardedCouplingSink(new File(temporaryFolder.getRoot(), "result.graph.json").getPath(),
+                                                      CouplingSinks.GRAPH, OutputSharding.SIZE, 20_000));
+    }
+
+    @Test
+    public void testClose_NothingWritten() throws IOException {
+        final File reportFile = new File(temporaryFolder.getRoot(), "result.csv.gz");
+
+        final ShardedCouplingSink sink = new ShardedCouplingSink(reportFile.getPath(), CouplingSinks.CSV,
+                                                                 OutputSharding.SIZE, 1024);
+        assertThat(sink.close()).isFalse();
+
+        assertThat(sink.getManifestFile()).hasName("result.manifest.json");
+        assertThat(readManifest(sink.getManifestFile()).getShards()).isEmpty();
+    }
+
+    private static OutputManifest readManifest(final File manifestFile) throws IOException {
+        return JsonUtils.fromJsonString(new String(Files.readAllBytes(manifestFile.toPath())), OutputManifest.class);
+    }
+
+    private static CouplingRecord record(final String applicationName, final int i) {
+        return new CouplingRecord.Builder()
+                   .appSetName("TestAppSet")
+                   .applicationName(applicationName)
+                   .artifactFileName("foo-1.0.0.jar")
+                   .artifactId("foo")
+                   .artifactGroup("com.vrbo.jarviz")
+                   .artifactVersion("1.0.0")
+                   .sourceClass("com.vrbo.jarviz.Foo")
+                   .sourceMethod("doThat" + i)
+                   .targetClass("com.vrbo.jarviz.Bar")
+                   .targetMethod("doThis")
+                   .build();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vrbo.jarviz.model.CouplingRecord;
+
+/**
+ * A custom sink provider registered in the test resources, which collects the records in memory.
+ */
+public class TestCouplingSinkProvider implements CouplingSinkProvider {
+
+    static final String NAME = "test";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public CouplingSink createSink(final String reportFile) {
+        return new ListCouplingSink();
+    }
+
+    static class ListCouplingSink implements CouplingSink {
+
+        final List<CouplingRecord> records = new ArrayList<>();
+
+        boolean closed = false;
+
+        @Override
+        public void write(final CouplingRecord couplingRecord) {
+            records.add(couplingRecord);
+        }
+
+        @Override
+        public boolean close() {
+            closed = true;
+            return !records.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.service;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vrbo.jarviz.config.CouplingOrdering;
+import com.vrbo.jarviz.model.Method;
+import com.vrbo.jarviz.model.MethodCoupling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UsageCollectorTest {
+
+    @Test
+    public void testGetMethodCouplings_Orderings() {
+        final UsageCollector collector = new UsageCollector();
+        collector.collectMethodCoupling(method("com.B", "b2"), method("com.A", "a1"));
+        collector.collectMethodCoupling(method("com.B", "b1"), method("com.Z", "z"));
+        collector.collectMethodCoupling(method("com.A", "a1"), method("com.Z", "z"));
+        collector.collectMethodCoupling(method("com.B", "b1"), method("com.A", "a1"));
+
+        final UsageCollector other = new UsageCollector();
+        other.collectMethodCoupling(method("com.C", "c"), method("com.B", "b1"));
+        other.collectMethodCoupling(method("com.A", "a2"), method("com.C", "c"));
+        collector.merge(other);
+
+        final List<MethodCoupling> sorted = collector.getMethodCouplings();
+        assertThat(sorted).extracting(UsageCollectorTest::toString)
+                          .containsExactly("com.A#a1->com.Z#z",
+                                           "com.A#a2->com.C#c",
+                                           "com.B#b1->com.A#a1",
+                                           "com.B#b1->com.Z#z",
+                                           "com.B#b2->com.A#a1",
+                                           "com.C#c->com.B#b1");
+        assertThat(collector.getMethodCouplings(CouplingOrdering.SORTED)).isEqualTo(sorted);
+
+        assertThat(collector.getMethodCouplings(CouplingOrdering.UNORDERED)).containsExactlyInAnyOrderElementsOf(sorted);
+
+        // Grouped by the source classes in the order they were collected
+        final List<MethodCoupling> grouped = collector.getMethodCouplings(CouplingOrdering.CLASS);
+        assertThat(grouped).containsExactlyInAnyOrderElementsOf(sorted);
+        assertThat(grouped).extracting(c -> c.getSource().getClassName())
+                           .containsExactly("com.B", "com.B", "com.B", "com.A", "com.A", "com.C");
+    }
+
+    private static Method method(final String className, final String methodName) {
+        return new Method.Builder().className(className).methodName(methodName).build();
+    }
+
+    private static String toString(final MethodCoupling coupling) {
+        return coupling.getSource().getClassName() + '#' + coupling.getSource().getMethodName() + "->" +
+               coupling.getTarget().getClassName() + '#' + coupling.getTarget().getMethodName();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.util;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LongHashSetTest {
+
+    @Test
+    public void testAdd() {
+        final LongHashSet set = new LongHashSet();
+
+        assertThat(set.isEmpty()).isTrue();
+        assertThat(set.add(0L)).isTrue();
+        assertThat(set.add(0L)).isFalse();
+        assertThat(set.add(-1L)).isTrue();
+        assertThat(set.add(1L << 32)).isTrue();
+        assertThat(set.add(1L << 32)).isFalse();
+
+        assertThat(set.size()).isEqualTo(3);
+        assertThat(set.contains(0L)).isTrue();
+        assertThat(set.contains(1L)).isFalse();
+        assertThat(set.toArray()).containsExactlyInAnyOrder(0L, -1L, 1L << 32);
+    }
+
+    @Test
+    public void testAdd_Resize() {
+        final LongHashSet set = new LongHashSet(0);
+        final Set<Long> expected = new HashSet<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            final long value = random.nextInt(5_000);
+            assertThat(set.add(value)).isEqualTo(expected.add(value));
+        }
+
+        assertThat(set.size()).isEqualTo(expected.size());
+        final Set<Long> values = new HashSet<>();
+        set.forEach(values::add);
+        assertThat(values).isEqualTo(expected);
+    }
+}
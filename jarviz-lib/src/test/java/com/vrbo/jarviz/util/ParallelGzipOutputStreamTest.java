@@ -0,0 +1,93 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelGzipOutputStreamTest {
+
+    @Test
+    public void testWrite_ManyBlocks() throws IOException {
+        final byte[] data = createData(1_000_000);
+
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, 4, 10_000)) {
+            out.write(data, 0, 1234);
+            out.write(data[1234]);
+            out.write(data, 1235, data.length - 1235);
+        }
+
+        assertThat(compressed.size()).isLessThan(data.length / 2);
+        assertThat(decompress(compressed.toByteArray())).isEqualTo(data);
+    }
+
+    @Test
+    public void testWrite_SmallerThanBlock() throws IOException {
+        final byte[] data = createData(100);
+
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, 2)) {
+            out.write(data);
+            out.flush();
+        }
+
+        assertThat(decompress(compressed.toByteArray())).isEqualTo(data);
+    }
+
+    @Test
+    public void testClose_NothingWritten() throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new ParallelGzipOutputStream(compressed, 1).close();
+
+        assertThat(decompress(compressed.toByteArray())).isEmpty();
+    }
+
+    @Test(expected = IOException.class)
+    public void testWrite_Closed() throws IOException {
+        final ParallelGzipOutputStream out = new ParallelGzipOutputStream(new ByteArrayOutputStream(), 1);
+        out.close();
+        out.write(1);
+    }
+
+    private static byte[] createData(final int length) {
+        final Random random = new Random(42);
+        final byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            // Compressible data, with repetitions within and across the blocks
+            data[i] = (byte) ('a' + random.nextInt(8));
+        }
+
+        return data;
+    }
+
+    private static byte[] decompress(final byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return ByteStreams.toByteArray(in);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.visitor;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.vrbo.jarviz.config.CouplingFilterConfig;
+import com.vrbo.jarviz.model.CouplingFilter;
+import com.vrbo.jarviz.service.UsageCollector;
+import com.vrbo.jarviz.util.couplingtest.Bar;
+import com.vrbo.jarviz.util.couplingtest.Foo;
+import com.vrbo.jarviz.util.couplingtest.MySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FilteredClassVisitorTest {
+
+    private static final CouplingFilterConfig FOO_FILTER_CONFIG =
+        new CouplingFilterConfig.Builder()
+            .include(new CouplingFilter.Builder()
+                         .targetPackage("com\\.vrbo\\.jarviz\\.util\\.couplingtest")
+                         .targetClass("Foo")
+                         .build())
+            .build();
+
+    @Test
+    public void testVisit_SkipsClassesWithoutMatchingTargets() throws IOException {
+        final UsageCollector collector = new UsageCollector(FOO_FILTER_CONFIG);
+
+        assertThat(new FilteredClassVisitor(Bar.class.getName(), collector).visit()).isFalse();
+        assertThat(new FilteredClassVisitor(Foo.class.getName(), collector).visit()).isFalse();
+        assertThat(new FilteredClassVisitor(MySource.class.getName(), collector).visit()).isTrue();
+        assertThat(collector.getMethodCouplings()).hasSize(10)
+                                                  .allMatch(c -> c.getTarget().getClassName().equals(Foo.class.getName()));
+    }
+
+    @Test
+    public void testVisit_WithoutFilters() throws IOException {
+        final UsageCollector collector = new UsageCollector();
+
+        assertThat(new FilteredClassVisitor(Bar.class.getName(), collector).visit()).isTrue();
+        assertThat(collector.getMethodCouplings()).hasSize(1);
+    }
+}
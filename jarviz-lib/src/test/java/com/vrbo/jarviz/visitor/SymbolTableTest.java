@@ -0,0 +1,46 @@
+/*
+* Copyright 2020 Expedia, Inc.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.vrbo.jarviz.visitor;
+
+import org.junit.Test;
+
+import com.vrbo.jarviz.model.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SymbolTableTest {
+
+    @Test
+    public void testGetClassName() {
+        final SymbolTable symbolTable = new SymbolTable();
+
+        assertThat(symbolTable.getClassName("com/foo/bar/MyClass")).isEqualTo("com.foo.bar.MyClass");
+        assertThat(symbolTable.getClassName("WEB-INF/classes/com/foo/bar/MyClass")).isEqualTo("com.foo.bar.MyClass");
+    }
+
+    @Test
+    public void testGetMethod_ReturnsCanonicalInstance() {
+        final SymbolTable symbolTable = new SymbolTable();
+
+        final Method method = symbolTable.getMethod("com/foo/bar/MyClass", "doThat");
+
+        assertThat(method).isEqualTo(new Method.Builder().className("com.foo.bar.MyClass").methodName("doThat").build());
+        assertThat(symbolTable.getMethod(new String("com/foo/bar/MyClass"), new String("doThat"))).isSameAs(method);
+        assertThat(symbolTable.getMethod("com/foo/bar/MyOtherClass", new String("doThat")).getMethodName())
+            .isSameAs(method.getMethodName());
+    }
+}